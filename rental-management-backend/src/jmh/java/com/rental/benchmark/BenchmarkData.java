@@ -0,0 +1,101 @@
+package com.rental.benchmark;
+
+import com.rental.dto.PropertySearchRequest;
+import com.rental.model.Property;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic listings shaped like production documents, shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    static final double CENTER_LATITUDE = 40.7128;
+    static final double CENTER_LONGITUDE = -74.0060;
+
+    private static final String[] CITIES = {"New York", "Brooklyn", "Jersey City", "Hoboken", "Newark"};
+    private static final String[] WORDS = {"sunny", "spacious", "renovated", "loft", "studio", "garden",
+            "view", "quiet", "modern", "classic", "downtown", "riverside", "family", "cozy", "bright"};
+    private static final String[] AMENITIES = {"Parking", "Gym", "Swimming Pool", "Laundry", "Elevator",
+            "Doorman", "Balcony", "Air Conditioning", "Dishwasher", "Pet Friendly"};
+
+    private BenchmarkData() {
+    }
+
+    static List<Property> properties(int count, double spreadDegrees, long seed) {
+        Random random = new Random(seed);
+        List<Property> properties = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            properties.add(property(random, i, spreadDegrees));
+        }
+        return properties;
+    }
+
+    static Property property(Random random, int index, double spreadDegrees) {
+        Property property = new Property();
+        property.setId(String.format("%024x", index));
+        property.setTitle(words(random, 4));
+        property.setDescription(words(random, 60));
+        property.setAddress((index % 900 + 1) + " " + WORDS[random.nextInt(WORDS.length)] + " Street");
+        property.setCity(CITIES[random.nextInt(CITIES.length)]);
+        property.setState("NY");
+        property.setZipCode(String.format("%05d", 10000 + random.nextInt(900)));
+        property.setCountry("USA");
+        property.setLocation(new GeoJsonPoint(
+                CENTER_LONGITUDE + (random.nextDouble() - 0.5) * spreadDegrees,
+                CENTER_LATITUDE + (random.nextDouble() - 0.5) * spreadDegrees));
+        property.setType(Property.PropertyType.values()[random.nextInt(Property.PropertyType.values().length)]);
+        property.setPrice(BigDecimal.valueOf(500 + random.nextInt(5000)));
+        property.setBedrooms(1 + random.nextInt(5));
+        property.setBathrooms(1 + random.nextInt(3));
+        property.setArea(400d + random.nextInt(2000));
+        List<String> amenities = new ArrayList<>();
+        for (String amenity : AMENITIES) {
+            if (random.nextInt(3) == 0) {
+                amenities.add(amenity);
+            }
+        }
+        property.setAmenities(amenities);
+        property.setImages(List.of(
+                "https://images.example.com/" + index + "/1.jpg",
+                "https://images.example.com/" + index + "/2.jpg",
+                "https://images.example.com/" + index + "/3.jpg"));
+        property.setOwnerId(String.format("%024x", random.nextInt(10_000)));
+        property.setStatus(random.nextInt(10) == 0 ? Property.PropertyStatus.RENTED : Property.PropertyStatus.AVAILABLE);
+        Date created = new Date(1_700_000_000_000L + random.nextInt(1_000_000_000));
+        property.setCreatedAt(created);
+        property.setUpdatedAt(created);
+        property.setVersion((long) random.nextInt(5));
+        return property;
+    }
+
+    static PropertySearchRequest searchRequest() {
+        PropertySearchRequest request = new PropertySearchRequest();
+        request.setLatitude(CENTER_LATITUDE);
+        request.setLongitude(CENTER_LONGITUDE);
+        request.setRadius(3000d);
+        request.setType("APARTMENT");
+        request.setMinPrice(1000d);
+        request.setMaxPrice(3000d);
+        request.setMinBedrooms(2);
+        request.setPage(0);
+        request.setSize(20);
+        return request;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package com.rental.benchmark;
+
+import com.rental.dto.PropertySearchRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache keys built on every search: {@code searchRequest.toString()} for pages and the filter
+ * signature for facets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBenchmark {
+
+    private PropertySearchRequest request;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkData.searchRequest();
+    }
+
+    @Benchmark
+    public String searchKey() {
+        return request.toString();
+    }
+
+    @Benchmark
+    public String facetKey() {
+        return request.filterSignature();
+    }
+}
@@ -0,0 +1,79 @@
+package com.rental.benchmark;
+
+import com.rental.cache.PropertyListRedisSerializer;
+import com.rental.cache.PropertyRedisSerializer;
+import com.rental.cache.PropertySummaryPageRedisSerializer;
+import com.rental.dto.PropertySummary;
+import com.rental.model.Property;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips through the binary cache serializers, with the generic JSON serializer they
+ * replaced as a baseline for the write side (it cannot read pages or GeoJSON points back).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    private final PropertyRedisSerializer propertySerializer = new PropertyRedisSerializer();
+    private final PropertySummaryPageRedisSerializer pageSerializer = new PropertySummaryPageRedisSerializer();
+    private final PropertyListRedisSerializer cellSerializer = new PropertyListRedisSerializer();
+    private final GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+
+    private Property property;
+    private Page<PropertySummary> page;
+    private List<Property> cell;
+
+    @Setup
+    public void setUp() {
+        property = BenchmarkData.properties(1, 0.1, 42).get(0);
+        page = new PageImpl<>(BenchmarkData.properties(20, 0.1, 43).stream().map(PropertySummary::of).toList(),
+                PageRequest.of(0, 20), 1000);
+        cell = BenchmarkData.properties(500, 0.01, 44);
+    }
+
+    @Benchmark
+    public Property propertyRoundTrip() {
+        return propertySerializer.deserialize(propertySerializer.serialize(property));
+    }
+
+    @Benchmark
+    public byte[] propertyJsonSerialize() {
+        return jsonSerializer.serialize(property);
+    }
+
+    @Benchmark
+    public Page<PropertySummary> summaryPageRoundTrip() {
+        return pageSerializer.deserialize(pageSerializer.serialize(page));
+    }
+
+    @Benchmark
+    public byte[] summaryPageJsonSerialize() {
+        return jsonSerializer.serialize(page);
+    }
+
+    @Benchmark
+    public List<Property> geoCellRoundTrip() {
+        return cellSerializer.deserialize(cellSerializer.serialize(cell));
+    }
+}
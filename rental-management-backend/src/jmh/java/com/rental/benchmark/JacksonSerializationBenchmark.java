@@ -0,0 +1,72 @@
+package com.rental.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.dto.PropertySummary;
+import com.rental.model.Property;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response serialization: a full property document, a page of full documents as list endpoints
+ * used to return, and the page of summaries they return now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Property property;
+    private byte[] propertyJson;
+    private Page<Property> propertyPage;
+    private Page<PropertySummary> summaryPage;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Same defaults as the MVC message converters
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<Property> properties = BenchmarkData.properties(20, 0.1, 42);
+        property = properties.get(0);
+        propertyJson = objectMapper.writeValueAsBytes(property);
+        propertyPage = new PageImpl<>(properties, PageRequest.of(0, 20), 1000);
+        summaryPage = propertyPage.map(PropertySummary::of);
+    }
+
+    @Benchmark
+    public byte[] serializeProperty() throws Exception {
+        return objectMapper.writeValueAsBytes(property);
+    }
+
+    @Benchmark
+    public Property deserializeProperty() throws Exception {
+        return objectMapper.readValue(propertyJson, Property.class);
+    }
+
+    @Benchmark
+    public byte[] serializePropertyPage() throws Exception {
+        return objectMapper.writeValueAsBytes(propertyPage);
+    }
+
+    @Benchmark
+    public byte[] serializeSummaryPage() throws Exception {
+        return objectMapper.writeValueAsBytes(summaryPage);
+    }
+}
@@ -0,0 +1,68 @@
+package com.rental.benchmark;
+
+import com.rental.dto.PropertySearchRequest;
+import com.rental.model.Property;
+import com.rental.repository.PropertyQueryBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search filtering. The old {@code PropertyService.filterProperties} stream filter no longer
+ * exists; its successors are the criteria built by {@link PropertyQueryBuilder} and the
+ * in-memory {@link PropertyQueryBuilder#matches} pass the geo cell cache runs over cell contents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyFilterBenchmark {
+
+    @Param({"500", "2000", "16000"})
+    private int candidates;
+
+    private PropertySearchRequest request;
+    private PropertyQueryBuilder query;
+    private List<Property> properties;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkData.searchRequest();
+        query = PropertyQueryBuilder.from(request);
+        properties = BenchmarkData.properties(candidates, 0.08, 42);
+    }
+
+    @Benchmark
+    public Query buildQuery() {
+        return PropertyQueryBuilder.from(request).build(PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public List<Property> filterAndSortInMemory() {
+        List<Property> matches = new ArrayList<>();
+        for (Property property : properties) {
+            if (query.matches(property)) {
+                matches.add(property);
+            }
+        }
+        matches.sort(Comparator.comparingDouble(query::distanceTo));
+        return matches.subList(0, Math.min(20, matches.size()));
+    }
+}
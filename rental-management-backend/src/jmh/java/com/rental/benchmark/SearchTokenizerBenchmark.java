@@ -0,0 +1,46 @@
+package com.rental.benchmark;
+
+import com.rental.model.Property;
+import com.rental.util.SearchTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token derivation added to every property save, and the per-keystroke query tokenization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchTokenizerBenchmark {
+
+    private Property property;
+
+    @Setup
+    public void setUp() {
+        property = BenchmarkData.properties(1, 0.1, 42).get(0);
+    }
+
+    @Benchmark
+    public List<String> indexTokens() {
+        return SearchTokenizer.indexTokens(property);
+    }
+
+    @Benchmark
+    public List<String> queryTokens() {
+        return SearchTokenizer.queryTokens("Sunny riverside lo");
+    }
+}
@@ -0,0 +1,160 @@
+package com.rental.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Indexes;
+import com.rental.util.GeoHash;
+import com.rental.util.KdTree;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Radius search over the in-memory spatial index against a linear scan of the same arrays and
+ * against MongoDB's {@code $near} on a 2dsphere index holding the same points (an embedded mongod,
+ * so it includes a local round trip but no network), plus the geohash cover computed for each
+ * cell-cached search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SpatialIndexBenchmark {
+
+    private static final double RADIUS_METERS = 3000;
+    private static final double METERS_PER_DEGREE = 111_320d;
+
+    @Param({"100000", "1000000"})
+    private int points;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private KdTree tree;
+    private double latDelta;
+    private double lngDelta;
+
+    @Setup
+    public void setUp() {
+        latitudes = new double[points];
+        longitudes = new double[points];
+        randomPoints(latitudes, longitudes);
+        tree = new KdTree(latitudes, longitudes);
+        latDelta = RADIUS_METERS / METERS_PER_DEGREE;
+        lngDelta = RADIUS_METERS / (METERS_PER_DEGREE * Math.cos(Math.toRadians(BenchmarkData.CENTER_LATITUDE + latDelta)));
+    }
+
+    @Benchmark
+    public void kdTreeRadius(Blackhole blackhole) {
+        tree.rangeQuery(BenchmarkData.CENTER_LATITUDE - latDelta, BenchmarkData.CENTER_LATITUDE + latDelta,
+                BenchmarkData.CENTER_LONGITUDE - lngDelta, BenchmarkData.CENTER_LONGITUDE + lngDelta,
+                i -> collect(i, blackhole));
+    }
+
+    @Benchmark
+    public void linearScanRadius(Blackhole blackhole) {
+        for (int i = 0; i < points; i++) {
+            collect(i, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void mongoNearRadius(MongoPoints mongo, Blackhole blackhole) {
+        Document near = new Document("$near", new Document("$geometry", new Document("type", "Point")
+                .append("coordinates", List.of(BenchmarkData.CENTER_LONGITUDE, BenchmarkData.CENTER_LATITUDE)))
+                .append("$maxDistance", RADIUS_METERS));
+        for (Document point : mongo.collection.find(new Document("location", near)).projection(new Document("_id", 1))) {
+            blackhole.consume(point);
+        }
+    }
+
+    @Benchmark
+    public Set<String> geoHashCover() {
+        return GeoHash.coveringCells(BenchmarkData.CENTER_LATITUDE, BenchmarkData.CENTER_LONGITUDE, RADIUS_METERS, 6, 16);
+    }
+
+    // Same seed, so every benchmark searches the same points
+    private static void randomPoints(double[] latitudes, double[] longitudes) {
+        Random random = new Random(42);
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = BenchmarkData.CENTER_LATITUDE + (random.nextDouble() - 0.5) * 2;
+            longitudes[i] = BenchmarkData.CENTER_LONGITUDE + (random.nextDouble() - 0.5) * 2;
+        }
+    }
+
+    private void collect(int i, Blackhole blackhole) {
+        double distance = GeoHash.distanceMeters(BenchmarkData.CENTER_LATITUDE, BenchmarkData.CENTER_LONGITUDE,
+                latitudes[i], longitudes[i]);
+        if (distance <= RADIUS_METERS) {
+            blackhole.consume(i);
+        }
+    }
+
+    /**
+     * The points in an embedded MongoDB, only started for the {@code $near} benchmark.
+     */
+    @State(Scope.Benchmark)
+    public static class MongoPoints {
+
+        private static final int INSERT_BATCH_SIZE = 10_000;
+
+        private TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+        private MongoClient client;
+        MongoCollection<Document> collection;
+
+        // Sized by the benchmark's own points parameter
+        @Setup
+        public void setUp(BenchmarkParams params) {
+            int points = Integer.parseInt(params.getParam("points"));
+            mongod = Mongod.instance().start(Version.Main.V7_0);
+            ServerAddress address = mongod.current().getServerAddress();
+            client = MongoClients.create("mongodb://" + address.getHost() + ":" + address.getPort());
+            collection = client.getDatabase("benchmark").getCollection("points");
+
+            double[] latitudes = new double[points];
+            double[] longitudes = new double[points];
+            randomPoints(latitudes, longitudes);
+            List<Document> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+            for (int i = 0; i < points; i++) {
+                batch.add(new Document("location", new Document("type", "Point")
+                        .append("coordinates", List.of(longitudes[i], latitudes[i]))));
+                if (batch.size() == INSERT_BATCH_SIZE || i == points - 1) {
+                    collection.insertMany(batch);
+                    batch.clear();
+                }
+            }
+            collection.createIndex(Indexes.geo2dsphere("location"));
+        }
+
+        @TearDown
+        public void tearDown() {
+            client.close();
+            mongod.close();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.rental.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads {@code /api/cache/stats} at the start and end of the measured window and turns the
+ * difference into hit rates per cache, so warm-up traffic does not flatter them. A lookup is a
+ * hit when either the local tier or Redis had the entry.
+ */
+final class CacheStatsProbe {
+
+    private final URI baseUri;
+    private final String adminToken;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Map<String, Counts> atStart = Map.of();
+
+    record Counts(long localHits, long localMisses, long remoteHits) {
+    }
+
+    record HitRate(long lookups, long localHits, long remoteHits, double hitRate) {
+    }
+
+    CacheStatsProbe(URI baseUri, String adminToken) {
+        this.baseUri = baseUri;
+        this.adminToken = adminToken;
+    }
+
+    void markStart() {
+        atStart = read();
+    }
+
+    /**
+     * Hit rates per cache since {@link #markStart()}; caches without lookups in the window are left out.
+     */
+    Map<String, HitRate> sinceStart() {
+        Map<String, HitRate> hitRates = new LinkedHashMap<>();
+        read().forEach((cache, now) -> {
+            Counts before = atStart.getOrDefault(cache, new Counts(0, 0, 0));
+            long localHits = now.localHits() - before.localHits();
+            long lookups = localHits + now.localMisses() - before.localMisses();
+            long remoteHits = now.remoteHits() - before.remoteHits();
+            if (lookups > 0) {
+                hitRates.put(cache, new HitRate(lookups, localHits, remoteHits, (double) (localHits + remoteHits) / lookups));
+            }
+        });
+        return hitRates;
+    }
+
+    private Map<String, Counts> read() {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/api/cache/stats"))
+                .header("Authorization", "Bearer " + adminToken)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Cache statistics returned HTTP " + response.statusCode());
+            }
+            Map<String, Counts> counts = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> caches = objectMapper.readTree(response.body()).fields();
+            while (caches.hasNext()) {
+                Map.Entry<String, JsonNode> cache = caches.next();
+                JsonNode local = cache.getValue().path("local");
+                JsonNode remote = cache.getValue().path("remote");
+                counts.put(cache.getKey(), new Counts(local.path("hits").asLong(), local.path("misses").asLong(),
+                        remote.path("hits").asLong()));
+            }
+            return counts;
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not read cache statistics", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading cache statistics", ex);
+        }
+    }
+}
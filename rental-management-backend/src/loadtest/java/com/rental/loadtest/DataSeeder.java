@@ -0,0 +1,228 @@
+package com.rental.loadtest;
+
+import com.rental.model.Property;
+import com.rental.model.Transaction;
+import com.rental.model.User;
+import com.rental.security.JwtTokenProvider;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes users, properties and bookings straight through the application's {@link MongoTemplate},
+ * so mapping callbacks such as search token derivation run as they do in production.
+ */
+final class DataSeeder {
+
+    private static final int BATCH_SIZE = 5_000;
+    private static final int PROGRESS_INTERVAL = 1_000_000;
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+
+    static final City[] CITIES = {
+            new City("New York", "NY", 40.7128, -74.0060),
+            new City("Chicago", "IL", 41.8781, -87.6298),
+            new City("Austin", "TX", 30.2672, -97.7431),
+            new City("Seattle", "WA", 47.6062, -122.3321),
+            new City("Miami", "FL", 25.7617, -80.1918)};
+
+    // Listings spread this far around a city center, in degrees
+    static final double CITY_SPREAD = 0.15;
+
+    private static final String[] WORDS = {"sunny", "spacious", "renovated", "loft", "studio", "garden",
+            "view", "quiet", "modern", "classic", "downtown", "riverside", "family", "cozy", "bright"};
+    private static final String[] AMENITIES = {"Parking", "Gym", "Swimming Pool", "Laundry", "Elevator",
+            "Doorman", "Balcony", "Air Conditioning", "Dishwasher", "Pet Friendly"};
+
+    record City(String name, String state, double latitude, double longitude) {
+    }
+
+    record SeededProperty(String id, String ownerId) {
+    }
+
+    record SeededData(List<User> users, Map<String, String> tokens, List<SeededProperty> properties, String adminToken) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final JwtTokenProvider tokenProvider;
+    private final Random random;
+
+    DataSeeder(ApplicationContext context, long seed) {
+        this.mongoTemplate = context.getBean(MongoTemplate.class);
+        this.passwordEncoder = context.getBean(PasswordEncoder.class);
+        this.tokenProvider = context.getBean(JwtTokenProvider.class);
+        this.random = new Random(seed);
+    }
+
+    SeededData seed(LoadTestOptions options) {
+        List<User> users = seedUsers(options.users);
+        List<SeededProperty> properties = seedProperties(options.properties, users);
+        seedTransactions(options.transactions, properties, users);
+
+        // Tokens are issued directly; logging in would only benchmark BCrypt
+        Map<String, String> tokens = new HashMap<>();
+        for (User user : users) {
+            tokens.put(user.getId(), token(user));
+        }
+        return new SeededData(users, tokens, properties, token(seedAdmin()));
+    }
+
+    // Only reads the cache statistics; it takes no part in the traffic
+    private User seedAdmin() {
+        User admin = new User();
+        admin.setEmail("admin@loadtest.local");
+        admin.setPassword(passwordEncoder.encode("loadtest"));
+        admin.setFirstName("Load");
+        admin.setLastName("Test Admin");
+        admin.setRole("ADMIN");
+        admin.setCreatedAt(new Date());
+        admin.setUpdatedAt(new Date());
+        return mongoTemplate.insert(admin);
+    }
+
+    private String token(User user) {
+        return tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private List<User> seedUsers(int count) {
+        String password = passwordEncoder.encode("loadtest");
+        Date now = new Date();
+        List<User> users = new ArrayList<>(count);
+        List<User> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@loadtest.local");
+            user.setPassword(password);
+            user.setFirstName("Load");
+            user.setLastName("Test " + i);
+            user.setRole("USER");
+            user.setCreatedAt(now);
+            user.setUpdatedAt(now);
+            batch.add(user);
+            if (batch.size() == BATCH_SIZE || i == count - 1) {
+                users.addAll(insert(batch, User.class));
+                batch.clear();
+            }
+        }
+        return users;
+    }
+
+    private List<SeededProperty> seedProperties(int count, List<User> users) {
+        List<SeededProperty> properties = new ArrayList<>(count);
+        List<Property> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            batch.add(property(i, users.get(random.nextInt(users.size())).getId()));
+            if (batch.size() == BATCH_SIZE || i == count - 1) {
+                for (Property property : insert(batch, Property.class)) {
+                    properties.add(new SeededProperty(property.getId(), property.getOwnerId()));
+                }
+                batch.clear();
+            }
+        }
+        return properties;
+    }
+
+    private Property property(int index, String ownerId) {
+        City city = CITIES[random.nextInt(CITIES.length)];
+        Property property = new Property();
+        property.setTitle(words(4));
+        property.setDescription(words(60));
+        property.setAddress((index % 900 + 1) + " " + WORDS[random.nextInt(WORDS.length)] + " Street");
+        property.setCity(city.name());
+        property.setState(city.state());
+        property.setZipCode(String.format("%05d", 10000 + random.nextInt(90000)));
+        property.setCountry("USA");
+        property.setLocation(new GeoJsonPoint(
+                city.longitude() + (random.nextDouble() - 0.5) * 2 * CITY_SPREAD,
+                city.latitude() + (random.nextDouble() - 0.5) * 2 * CITY_SPREAD));
+        property.setType(Property.PropertyType.values()[random.nextInt(Property.PropertyType.values().length)]);
+        property.setPrice(BigDecimal.valueOf(500 + random.nextInt(5000)));
+        property.setBedrooms(1 + random.nextInt(5));
+        property.setBathrooms(1 + random.nextInt(3));
+        property.setArea(400d + random.nextInt(2000));
+        List<String> amenities = new ArrayList<>();
+        for (String amenity : AMENITIES) {
+            if (random.nextInt(3) == 0) {
+                amenities.add(amenity);
+            }
+        }
+        property.setAmenities(amenities);
+        property.setImages(List.of("https://images.example.com/" + index + "/1.jpg"));
+        property.setOwnerId(ownerId);
+        property.setStatus(random.nextInt(20) == 0 ? Property.PropertyStatus.MAINTENANCE : Property.PropertyStatus.AVAILABLE);
+        Date created = new Date(System.currentTimeMillis() - random.nextInt(365) * DAY_MS);
+        property.setCreatedAt(created);
+        property.setUpdatedAt(created);
+        property.setVersion(0L);
+        return property;
+    }
+
+    // Bookings on a property follow each other in three-week slots starting a year ago, so they never overlap
+    private void seedTransactions(int count, List<SeededProperty> properties, List<User> users) {
+        long now = System.currentTimeMillis();
+        long firstSlot = now - 365 * DAY_MS;
+        List<Transaction> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            SeededProperty property = properties.get(i % properties.size());
+            long start = firstSlot + (long) (i / properties.size()) * 21 * DAY_MS;
+            long end = start + (7 + random.nextInt(8)) * DAY_MS;
+
+            Transaction transaction = new Transaction();
+            transaction.setPropertyId(property.id());
+            transaction.setTenantId(tenantFor(property, users));
+            transaction.setOwnerId(property.ownerId());
+            transaction.setAmount(BigDecimal.valueOf(500 + random.nextInt(5000)));
+            transaction.setStartDate(new Date(start));
+            transaction.setEndDate(new Date(end));
+            transaction.setStatus(end < now ? Transaction.TransactionStatus.COMPLETED : Transaction.TransactionStatus.APPROVED);
+            transaction.setCreatedAt(new Date(start - DAY_MS));
+            transaction.setUpdatedAt(new Date(start - DAY_MS));
+            transaction.setVersion(0L);
+            batch.add(transaction);
+            if (batch.size() == BATCH_SIZE || i == count - 1) {
+                insert(batch, Transaction.class);
+                batch.clear();
+            }
+            // Seeding ten million bookings takes minutes, so show it is moving
+            if ((i + 1) % PROGRESS_INTERVAL == 0) {
+                System.out.printf("  %,d of %,d bookings written%n", i + 1, count);
+            }
+        }
+    }
+
+    private String tenantFor(SeededProperty property, List<User> users) {
+        while (true) {
+            String tenantId = users.get(random.nextInt(users.size())).getId();
+            if (!tenantId.equals(property.ownerId())) {
+                return tenantId;
+            }
+        }
+    }
+
+    private <T> Collection<T> insert(List<T> batch, Class<T> type) {
+        return mongoTemplate.insert(new ArrayList<>(batch), type);
+    }
+
+    private String words(int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,125 @@
+package com.rental.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency histograms (microsecond resolution, 3 significant digits), outcome
+ * counters and response body sizes. 4xx answers such as a booking rejected for overlapping dates are expected under load
+ * and counted apart from 5xx answers and transport failures, which count as errors.
+ */
+final class LatencyReport {
+
+    private static final long MAX_TRACKABLE_MICROS = Duration.ofMinutes(1).toNanos() / 1000;
+
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    void record(Operation operation, long micros, int status, long bytes) {
+        Stats stat = stats.get(operation);
+        stat.histogram.recordValue(Math.min(micros, MAX_TRACKABLE_MICROS));
+        stat.bytes.add(bytes);
+        if (status >= 500 || status < 0) {
+            stat.errors.increment();
+        } else if (status >= 400) {
+            stat.rejected.increment();
+        }
+    }
+
+    /**
+     * Drops everything recorded so far, at the end of the warm-up.
+     */
+    void reset() {
+        stats.values().forEach(Stats::reset);
+    }
+
+    List<Row> rows(Duration elapsed) {
+        List<Row> rows = new ArrayList<>();
+        double seconds = elapsed.toNanos() / 1e9;
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Histogram histogram = entry.getValue().histogram.copy();
+            long count = histogram.getTotalCount();
+            if (count == 0) {
+                continue;
+            }
+            rows.add(new Row(entry.getKey().label(), count,
+                    entry.getValue().rejected.sum(), entry.getValue().errors.sum(),
+                    count / seconds,
+                    histogram.getValueAtPercentile(50) / 1000d,
+                    histogram.getValueAtPercentile(99) / 1000d,
+                    histogram.getValueAtPercentile(99.9) / 1000d,
+                    histogram.getMaxValue() / 1000d,
+                    entry.getValue().bytes.sum() / count));
+        }
+        return rows;
+    }
+
+    static void print(List<Row> rows) {
+        System.out.printf(Locale.ROOT, "%n%-14s %10s %9s %7s %10s %9s %9s %9s %9s %10s%n",
+                "operation", "requests", "rejected", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "bytes/resp");
+        for (Row row : rows) {
+            System.out.printf(Locale.ROOT, "%-14s %10d %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %10d%n",
+                    row.operation(), row.requests(), row.rejected(), row.errors(), row.throughput(),
+                    row.p50Millis(), row.p99Millis(), row.p999Millis(), row.maxMillis(), row.bytesPerResponse());
+        }
+    }
+
+    static void write(Path output, LoadTestOptions options, Duration elapsed, List<Row> rows,
+                      Map<String, CacheStatsProbe.HitRate> caches, List<ProjectionProbe.Shape> projection) throws IOException {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("users", options.users);
+        settings.put("properties", options.properties);
+        settings.put("transactions", options.transactions);
+        settings.put("concurrency", options.concurrency);
+        settings.put("durationSeconds", elapsed.toMillis() / 1000d);
+        settings.put("mix", options.mix);
+        settings.put("applicationArgs", options.applicationArgs);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("settings", settings);
+        result.put("operations", rows);
+        result.put("caches", caches);
+        result.put("projection", projection);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), result);
+    }
+
+    record Row(String operation, long requests, long rejected, long errors, double throughput,
+               double p50Millis, double p99Millis, double p999Millis, double maxMillis, long bytesPerResponse) {
+    }
+
+    private static final class Stats {
+        final ConcurrentHistogram histogram = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+        final LongAdder rejected = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+
+        void reset() {
+            histogram.reset();
+            rejected.reset();
+            errors.reset();
+            bytes.reset();
+        }
+    }
+}
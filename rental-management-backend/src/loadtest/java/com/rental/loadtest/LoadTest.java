@@ -0,0 +1,125 @@
+package com.rental.loadtest;
+
+import com.rental.RentalManagementApplication;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * End-to-end load test: starts MongoDB and Redis in-process, boots the application against them,
+ * seeds a realistic data set and drives a weighted mix of searches, views, bookings and approvals
+ * over HTTP. Latency percentiles per operation are printed and written as JSON; the process exits
+ * with status 1 when a regression gate is breached, so CI can fail the build on it.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Path output = options.output != null ? options.output : Path.of("target", "loadtest-result.json");
+
+        TransitionWalker.ReachedState<RunningMongodProcess> mongod = Mongod.instance().start(Version.Main.V7_0);
+        RedisServer redis = null;
+        ConfigurableApplicationContext context = null;
+        boolean passed;
+        try {
+            ServerAddress mongoAddress = mongod.current().getServerAddress();
+            int redisPort = freePort();
+            redis = new RedisServer(redisPort);
+            redis.start();
+
+            List<String> applicationArgs = new ArrayList<>();
+            applicationArgs.add("--spring.data.mongodb.uri=mongodb://" + mongoAddress.getHost() + ":"
+                    + mongoAddress.getPort() + "/rental_loadtest");
+            applicationArgs.add("--spring.data.redis.host=localhost");
+            applicationArgs.add("--spring.data.redis.port=" + redisPort);
+            applicationArgs.add("--server.port=0");
+            applicationArgs.add("--logging.level.root=WARN");
+            // Every request would otherwise log a warning once the data set is seeded
+            applicationArgs.add("--app.mongo.query-warn-threshold=1000");
+            applicationArgs.addAll(options.applicationArgs);
+            context = new SpringApplicationBuilder(RentalManagementApplication.class)
+                    .run(applicationArgs.toArray(new String[0]));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            System.out.printf("Seeding %d users, %d properties and %d bookings%n",
+                    options.users, options.properties, options.transactions);
+            DataSeeder.SeededData data = new DataSeeder(context, options.seed).seed(options);
+            List<ProjectionProbe.Shape> projection = new ProjectionProbe(context).measure();
+            ProjectionProbe.print(projection);
+
+            System.out.printf("Running %d workers: %ss warm-up, %ss measured%n",
+                    options.concurrency, options.warmup.toSeconds(), options.duration.toSeconds());
+            URI baseUri = URI.create("http://localhost:" + port);
+            LatencyReport report = new LatencyReport();
+            CacheStatsProbe cacheStats = new CacheStatsProbe(baseUri, data.adminToken());
+            TrafficDriver driver = new TrafficDriver(baseUri, data, options, report);
+            Duration elapsed = driver.run(cacheStats::markStart);
+
+            List<LatencyReport.Row> rows = report.rows(elapsed);
+            Map<String, CacheStatsProbe.HitRate> caches = cacheStats.sinceStart();
+            LatencyReport.print(rows);
+            caches.forEach((cache, hitRate) -> System.out.printf(Locale.ROOT, "cache %-20s %10d lookups, hit rate %.3f%n",
+                    cache, hitRate.lookups(), hitRate.hitRate()));
+            LatencyReport.write(output, options, elapsed, rows, caches, projection);
+            System.out.println("Results written to " + output.toAbsolutePath());
+            passed = checkGates(options, rows);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (redis != null) {
+                redis.stop();
+            }
+            mongod.close();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean checkGates(LoadTestOptions options, List<LatencyReport.Row> rows) {
+        boolean passed = true;
+        long requests = 0;
+        long errors = 0;
+        for (LatencyReport.Row row : rows) {
+            requests += row.requests();
+            errors += row.errors();
+            Double maxP99Millis = options.maxP99MillisByOperation.getOrDefault(
+                    Operation.valueOf(row.operation().toUpperCase(Locale.ROOT)), options.maxP99Millis);
+            if (maxP99Millis != null && row.p99Millis() > maxP99Millis) {
+                System.out.printf("FAILED: %s p99 %.2f ms exceeds %.2f ms%n",
+                        row.operation(), row.p99Millis(), maxP99Millis);
+                passed = false;
+            }
+        }
+        double errorRate = requests > 0 ? (double) errors / requests : 1;
+        if (errorRate > options.maxErrorRate) {
+            System.out.printf("FAILED: error rate %.4f exceeds %.4f%n", errorRate, options.maxErrorRate);
+            passed = false;
+        }
+        return passed;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
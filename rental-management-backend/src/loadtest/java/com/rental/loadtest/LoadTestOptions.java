@@ -0,0 +1,102 @@
+package com.rental.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line of the load test. Options take the form {@code --name=value}; options starting with
+ * {@code --spring.}, {@code --app.}, {@code --server.} or {@code --management.} are passed to the
+ * application unchanged.
+ */
+final class LoadTestOptions {
+
+    int users = 1_000;
+    int properties = 50_000;
+    int transactions = 100_000;
+    int concurrency = 32;
+    Duration warmup = Duration.ofSeconds(15);
+    Duration duration = Duration.ofSeconds(60);
+    Map<Operation, Integer> mix = defaultMix();
+    long seed = 42;
+    Path output;
+    // Regression gates; a breached gate makes the run exit with status 1
+    Double maxP99Millis;
+    final Map<Operation, Double> maxP99MillisByOperation = new EnumMap<>(Operation.class);
+    double maxErrorRate = 0.01;
+    final List<String> applicationArgs = new ArrayList<>();
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (name.startsWith("spring.") || name.startsWith("app.") || name.startsWith("server.")
+                    || name.startsWith("management.")) {
+                options.applicationArgs.add(arg);
+                continue;
+            }
+            switch (name) {
+                case "users" -> options.users = Integer.parseInt(value);
+                case "properties" -> options.properties = Integer.parseInt(value);
+                case "transactions" -> options.transactions = Integer.parseInt(value);
+                case "concurrency" -> options.concurrency = Integer.parseInt(value);
+                case "warmup" -> options.warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "duration" -> options.duration = Duration.ofSeconds(Long.parseLong(value));
+                case "mix" -> options.mix = parseMix(value);
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "output" -> options.output = Path.of(value);
+                case "max-p99-ms" -> options.parseMaxP99(value);
+                case "max-error-rate" -> options.maxErrorRate = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        if (options.users < 2 || options.properties < 1 || options.concurrency < 1) {
+            throw new IllegalArgumentException("Need at least 2 users, 1 property and 1 worker");
+        }
+        return options;
+    }
+
+    // Either one gate for every operation, e.g. "250", or gates per operation, e.g. "keyword_search:20,search:250"
+    private void parseMaxP99(String value) {
+        if (!value.contains(":")) {
+            maxP99Millis = Double.parseDouble(value);
+            return;
+        }
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            maxP99MillisByOperation.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)),
+                    Double.parseDouble(parts[1].trim()));
+        }
+    }
+
+    // Weights per operation, e.g. "search:20,keyword_search:10,geo_search:25,availability:5,view:23,update:2,book:10,approve:5"
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            mix.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+
+    private static Map<Operation, Integer> defaultMix() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        mix.put(Operation.SEARCH, 20);
+        mix.put(Operation.KEYWORD_SEARCH, 10);
+        mix.put(Operation.GEO_SEARCH, 25);
+        mix.put(Operation.AVAILABILITY, 5);
+        mix.put(Operation.VIEW, 23);
+        mix.put(Operation.UPDATE, 2);
+        mix.put(Operation.BOOK, 10);
+        mix.put(Operation.APPROVE, 5);
+        return mix;
+    }
+}
@@ -0,0 +1,14 @@
+package com.rental.loadtest;
+
+import java.util.Locale;
+
+/**
+ * Kinds of request the traffic driver issues; each one is reported separately.
+ */
+enum Operation {
+    SEARCH, KEYWORD_SEARCH, GEO_SEARCH, AVAILABILITY, VIEW, UPDATE, BOOK, APPROVE;
+
+    String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
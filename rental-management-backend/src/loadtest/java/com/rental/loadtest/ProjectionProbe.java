@@ -0,0 +1,131 @@
+package com.rental.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.rental.dto.PropertySummary;
+import com.rental.model.Property;
+import com.rental.repository.PropertyQueryBuilder;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.conversions.Bson;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs the first page of the list and search shapes the traffic driver sends once with the summary
+ * projection the application uses and once fetching whole documents, as list endpoints did before
+ * it. For each it records the documents and index keys MongoDB examined, the BSON bytes it returned
+ * and the JSON bytes of the page the endpoint would send.
+ */
+final class ProjectionProbe {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+    record Cost(int results, long docsExamined, long keysExamined, long bsonBytes, long jsonBytes) {
+    }
+
+    record Shape(String query, Cost full, Cost summary) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final QueryMapper queryMapper;
+    private final MongoPersistentEntity<?> entity;
+    private final Codec<Document> documentCodec = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+
+    ProjectionProbe(ApplicationContext context) {
+        this.mongoTemplate = context.getBean(MongoTemplate.class);
+        this.objectMapper = context.getBean(ObjectMapper.class);
+        this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        this.entity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(Property.class);
+    }
+
+    List<Shape> measure() {
+        DataSeeder.City city = DataSeeder.CITIES[0];
+        Map<String, PropertyQueryBuilder> queries = new LinkedHashMap<>();
+        queries.put("list", new PropertyQueryBuilder());
+        queries.put("city", new PropertyQueryBuilder().city(city.name()));
+        queries.put("city+price", new PropertyQueryBuilder().city(city.name())
+                .priceBetween(BigDecimal.valueOf(1000), BigDecimal.valueOf(2000)));
+        queries.put("price, sort=price_asc", new PropertyQueryBuilder()
+                .priceBetween(BigDecimal.valueOf(1000), BigDecimal.valueOf(2000))
+                .sort(PropertyQueryBuilder.SortOrder.PRICE_ASC));
+        queries.put("geo", new PropertyQueryBuilder().near(city.latitude(), city.longitude(), 3000));
+
+        List<Shape> shapes = new ArrayList<>();
+        queries.forEach((name, builder) -> {
+            Query query = builder.build(FIRST_PAGE).limit(FIRST_PAGE.getPageSize());
+            shapes.add(new Shape(name, cost(query, null),
+                    cost(query, queryMapper.getMappedFields(query.getFieldsObject(), entity))));
+        });
+        return shapes;
+    }
+
+    static void print(List<Shape> shapes) {
+        System.out.printf(Locale.ROOT, "%n%-22s %7s %15s %15s %21s %21s%n", "first page of", "results",
+                "docs examined", "keys examined", "BSON bytes full/sum", "JSON bytes full/sum");
+        for (Shape shape : shapes) {
+            System.out.printf(Locale.ROOT, "%-22s %7d %7d/%-7d %7d/%-7d %10d/%-10d %10d/%-10d%n",
+                    shape.query(), shape.summary().results(),
+                    shape.full().docsExamined(), shape.summary().docsExamined(),
+                    shape.full().keysExamined(), shape.summary().keysExamined(),
+                    shape.full().bsonBytes(), shape.summary().bsonBytes(),
+                    shape.full().jsonBytes(), shape.summary().jsonBytes());
+        }
+    }
+
+    // A null projection fetches whole documents
+    private Cost cost(Query query, Document projection) {
+        Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+        Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+        MongoCollection<RawBsonDocument> collection = mongoTemplate.getDb()
+                .getCollection(mongoTemplate.getCollectionName(Property.class), RawBsonDocument.class);
+
+        Document stats = find(collection, filter, sort, query, projection)
+                .explain(Document.class, ExplainVerbosity.EXECUTION_STATS)
+                .get("executionStats", Document.class);
+
+        long bsonBytes = 0;
+        List<Property> properties = new ArrayList<>();
+        for (RawBsonDocument raw : find(collection, filter, sort, query, projection)) {
+            bsonBytes += raw.getByteBuffer().remaining();
+            properties.add(mongoTemplate.getConverter().read(Property.class, raw.decode(documentCodec)));
+        }
+
+        // Whole documents went out as a page of properties, projected ones go out as a page of summaries
+        Object page = projection == null
+                ? new PageImpl<>(properties, FIRST_PAGE, properties.size())
+                : new PageImpl<>(properties.stream().map(PropertySummary::of).toList(), FIRST_PAGE, properties.size());
+        try {
+            return new Cost(properties.size(), stats.get("totalDocsExamined", Number.class).longValue(),
+                    stats.get("totalKeysExamined", Number.class).longValue(),
+                    bsonBytes, objectMapper.writeValueAsBytes(page).length);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not serialize a result page", ex);
+        }
+    }
+
+    private static FindIterable<RawBsonDocument> find(MongoCollection<RawBsonDocument> collection, Document filter,
+                                                      Document sort, Query query, Bson projection) {
+        FindIterable<RawBsonDocument> find = collection.find(filter).sort(sort).limit(query.getLimit());
+        return projection != null ? find.projection(projection) : find;
+    }
+}
@@ -0,0 +1,323 @@
+package com.rental.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.rental.model.User;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop workers issuing the configured operation mix against the running application.
+ * Geo searches replay map panning: each worker keeps a viewport that drifts a few hundred meters
+ * per request and occasionally jumps to another city, so consecutive searches overlap like they
+ * do when a user drags the map. Keyword searches replay a type-ahead, one request per keystroke
+ * of a phrase. Property views and owner edits favour a small hot set of listings.
+ */
+final class TrafficDriver {
+
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+    private static final double METERS_PER_DEGREE = 111_320d;
+    private static final String[] SORTS = {"", "newest", "price_asc", "price_desc", "relevance"};
+    // Phrases users type into the search box, sent prefix by prefix like a type-ahead does
+    private static final String[] KEYWORDS = {"sunny loft", "garden view", "modern studio", "quiet family home",
+            "renovated downtown", "bright riverside", "cozy classic"};
+    private static final int TYPE_AHEAD_MIN_CHARS = 2;
+    // Fields of a property that an owner's edit sends back unchanged, besides its coordinates
+    private static final String[] UPDATE_FIELDS = {"title", "description", "address", "city", "state", "zipCode",
+            "country", "type", "bedrooms", "bathrooms", "area", "amenities", "images"};
+
+    private record PendingBooking(String transactionId, String ownerId) {
+    }
+
+    private final URI baseUri;
+    private final DataSeeder.SeededData data;
+    private final LoadTestOptions options;
+    private final LatencyReport report;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Queue<PendingBooking> pendingBookings = new ConcurrentLinkedQueue<>();
+    private final Operation[] schedule;
+
+    private volatile long deadline;
+
+    TrafficDriver(URI baseUri, DataSeeder.SeededData data, LoadTestOptions options, LatencyReport report) {
+        this.baseUri = baseUri;
+        this.data = data;
+        this.options = options;
+        this.report = report;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<Operation> weighted = new ArrayList<>();
+        options.mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("The operation mix is empty");
+        }
+        this.schedule = weighted.toArray(new Operation[0]);
+    }
+
+    /**
+     * Runs warm-up then measurement, resetting the report and calling {@code onMeasurementStart}
+     * in between; returns the measured time.
+     */
+    Duration run(Runnable onMeasurementStart) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>(options.concurrency);
+        deadline = System.nanoTime() + options.warmup.toNanos() + options.duration.toNanos();
+        for (int i = 0; i < options.concurrency; i++) {
+            Worker worker = new Worker(new Random(options.seed + i));
+            Thread thread = new Thread(worker, "loadtest-worker-" + i);
+            workers.add(thread);
+            thread.start();
+        }
+
+        Thread.sleep(options.warmup.toMillis());
+        report.reset();
+        onMeasurementStart.run();
+        long measuredFrom = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return Duration.ofNanos(System.nanoTime() - measuredFrom);
+    }
+
+    private final class Worker implements Runnable {
+
+        private final Random random;
+        private double latitude;
+        private double longitude;
+        private String typing;
+        private int typed;
+
+        Worker(Random random) {
+            this.random = random;
+            jumpToRandomCity();
+        }
+
+        @Override
+        public void run() {
+            while (System.nanoTime() < deadline) {
+                Operation operation = schedule[random.nextInt(schedule.length)];
+                switch (operation) {
+                    case SEARCH -> search();
+                    case KEYWORD_SEARCH -> keywordSearch();
+                    case GEO_SEARCH -> geoSearch();
+                    case AVAILABILITY -> availability();
+                    case VIEW -> view();
+                    case UPDATE -> update();
+                    case BOOK -> book();
+                    case APPROVE -> approve();
+                }
+            }
+        }
+
+        private void search() {
+            // One search in five comes from the listing page, which also asks for facet counts
+            String path = random.nextInt(5) == 0 ? "/api/properties/facets" : "/api/properties";
+            StringBuilder query = new StringBuilder(path).append("?size=20&page=").append(random.nextInt(5));
+            int variant = random.nextInt(3);
+            if (variant <= 1) {
+                query.append("&city=").append(encode(DataSeeder.CITIES[random.nextInt(DataSeeder.CITIES.length)].name()));
+            }
+            if (variant == 1 || variant == 2) {
+                int min = 500 + random.nextInt(8) * 250;
+                query.append("&minPrice=").append(min).append("&maxPrice=").append(min + 1000);
+            }
+            String sort = SORTS[random.nextInt(SORTS.length)];
+            if (!sort.isEmpty()) {
+                query.append("&sort=").append(sort);
+            }
+            send(Operation.SEARCH, get(query.toString()));
+        }
+
+        // One keystroke: the next longer prefix of the phrase being typed, a new phrase once it is complete
+        private void keywordSearch() {
+            if (typing == null || typed >= typing.length()) {
+                typing = KEYWORDS[random.nextInt(KEYWORDS.length)];
+                typed = TYPE_AHEAD_MIN_CHARS - 1;
+            }
+            typed++;
+            String query = "/api/properties?size=10&includeTotal=false&q=" + encode(typing.substring(0, typed));
+            send(Operation.KEYWORD_SEARCH, get(query));
+        }
+
+        private void geoSearch() {
+            if (random.nextInt(50) == 0) {
+                jumpToRandomCity();
+            } else {
+                double bearing = random.nextDouble() * 2 * Math.PI;
+                double meters = 200 + random.nextInt(600);
+                latitude += Math.cos(bearing) * meters / METERS_PER_DEGREE;
+                longitude += Math.sin(bearing) * meters / (METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+            }
+            int radius = 1000 + random.nextInt(4) * 1000;
+            String query = String.format(Locale.ROOT,
+                    "/api/properties?latitude=%.5f&longitude=%.5f&radius=%d&size=20", latitude, longitude, radius);
+            send(Operation.GEO_SEARCH, get(query));
+        }
+
+        // Which listings in a city are free for a stay in the next six months; most callers page without totals
+        private void availability() {
+            long start = System.currentTimeMillis() + random.nextInt(180) * DAY_MS;
+            long end = start + (2 + random.nextInt(13)) * DAY_MS;
+            String query = "/api/properties/available?size=20"
+                    + "&city=" + encode(DataSeeder.CITIES[random.nextInt(DataSeeder.CITIES.length)].name())
+                    + "&startDate=" + start + "&endDate=" + end
+                    + "&page=" + random.nextInt(3)
+                    + "&includeTotal=" + (random.nextInt(4) == 0);
+            send(Operation.AVAILABILITY, get(query));
+        }
+
+        private void view() {
+            send(Operation.VIEW, get("/api/properties/" + randomProperty().id()));
+        }
+
+        // The owner changes the price of a listing by up to 10%, which evicts the cached searches that can contain it
+        private void update() {
+            DataSeeder.SeededProperty property = randomProperty();
+            JsonNode current = fetch("/api/properties/" + property.id());
+            if (current == null) {
+                return;
+            }
+            ObjectNode body = objectMapper.createObjectNode();
+            for (String field : UPDATE_FIELDS) {
+                if (current.hasNonNull(field)) {
+                    body.set(field, current.get(field));
+                }
+            }
+            body.put("longitude", current.path("location").path("coordinates").path(0).asDouble());
+            body.put("latitude", current.path("location").path("coordinates").path(1).asDouble());
+            BigDecimal price = current.path("price").decimalValue()
+                    .multiply(BigDecimal.valueOf(0.9 + random.nextDouble() * 0.2))
+                    .setScale(0, RoundingMode.HALF_UP)
+                    .max(BigDecimal.ONE);
+            body.put("price", price);
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/api/properties/" + property.id()))
+                    .header("Authorization", "Bearer " + data.tokens().get(property.ownerId()))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .PUT(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
+            send(Operation.UPDATE, request);
+        }
+
+        private void book() {
+            DataSeeder.SeededProperty property = randomProperty();
+            User tenant = data.users().get(random.nextInt(data.users().size()));
+            if (tenant.getId().equals(property.ownerId())) {
+                return;
+            }
+            long start = System.currentTimeMillis() + (1 + random.nextInt(720)) * DAY_MS;
+            long end = start + (1 + random.nextInt(14)) * DAY_MS;
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(
+                            "/api/transactions?propertyId=" + property.id() + "&startDate=" + start + "&endDate=" + end))
+                    .header("Authorization", "Bearer " + data.tokens().get(tenant.getId()))
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            HttpResponse<String> response = send(Operation.BOOK, request);
+            if (response != null && response.statusCode() == 200) {
+                try {
+                    JsonNode transaction = objectMapper.readTree(response.body());
+                    pendingBookings.add(new PendingBooking(transaction.get("id").asText(), property.ownerId()));
+                } catch (IOException ex) {
+                    // The booking exists; it just cannot be approved later
+                }
+            }
+        }
+
+        private void approve() {
+            PendingBooking booking = pendingBookings.poll();
+            if (booking == null) {
+                view(); // nothing booked yet, keep the load steady
+                return;
+            }
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(
+                            "/api/transactions/" + booking.transactionId() + "/approve"))
+                    .header("Authorization", "Bearer " + data.tokens().get(booking.ownerId()))
+                    .timeout(Duration.ofSeconds(30))
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            send(Operation.APPROVE, request);
+        }
+
+        // Most views go to the first 1% of listings, like traffic to featured or shared links
+        private DataSeeder.SeededProperty randomProperty() {
+            List<DataSeeder.SeededProperty> properties = data.properties();
+            int hotSet = Math.max(1, properties.size() / 100);
+            return random.nextInt(10) < 8
+                    ? properties.get(random.nextInt(hotSet))
+                    : properties.get(random.nextInt(properties.size()));
+        }
+
+        private void jumpToRandomCity() {
+            DataSeeder.City city = DataSeeder.CITIES[random.nextInt(DataSeeder.CITIES.length)];
+            latitude = city.latitude() + (random.nextDouble() - 0.5) * DataSeeder.CITY_SPREAD;
+            longitude = city.longitude() + (random.nextDouble() - 0.5) * DataSeeder.CITY_SPREAD;
+        }
+
+        // Reads a resource an operation needs without recording it
+        private JsonNode fetch(String path) {
+            try {
+                HttpResponse<String> response = client.send(get(path), HttpResponse.BodyHandlers.ofString());
+                return response.statusCode() == 200 ? objectMapper.readTree(response.body()) : null;
+            } catch (IOException ex) {
+                return null;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                deadline = 0;
+                return null;
+            }
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(baseUri.resolve(path))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+        }
+
+        private HttpResponse<String> send(Operation operation, HttpRequest request) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                report.record(operation, (System.nanoTime() - start) / 1000, response.statusCode(),
+                        response.body().getBytes(StandardCharsets.UTF_8).length);
+                return response;
+            } catch (IOException ex) {
+                report.record(operation, (System.nanoTime() - start) / 1000, -1, 0);
+                return null;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                deadline = 0;
+                return null;
+            }
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
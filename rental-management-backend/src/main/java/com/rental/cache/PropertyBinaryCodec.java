@@ -0,0 +1,277 @@
+package com.rental.cache;
+
+import com.rental.dto.PropertySummary;
+import com.rental.model.Property;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Schema-based binary encoding of {@link Property} and {@link PropertySummary}. Fields are written in a fixed order without
+ * names or type hints; the leading format byte lets readers treat entries written by another
+ * schema revision as cache misses.
+ */
+public final class PropertyBinaryCodec {
+
+    static final byte FORMAT_VERSION = 3;
+
+    private static final Property.PropertyType[] TYPES = Property.PropertyType.values();
+    private static final Property.PropertyStatus[] STATUSES = Property.PropertyStatus.values();
+
+    private PropertyBinaryCodec() {
+    }
+
+    public static byte[] encode(Property property) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FORMAT_VERSION);
+        writeProperty(out, property);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    public static Property decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readByte() != FORMAT_VERSION) {
+            return null;
+        }
+        return readProperty(in);
+    }
+
+    static void writeProperty(DataOutputStream out, Property property) throws IOException {
+        writeString(out, property.getId());
+        writeString(out, property.getTitle());
+        writeString(out, property.getDescription());
+        writeString(out, property.getAddress());
+        writeString(out, property.getCity());
+        writeString(out, property.getState());
+        writeString(out, property.getZipCode());
+        writeString(out, property.getCountry());
+
+        GeoJsonPoint location = property.getLocation();
+        out.writeBoolean(location != null);
+        if (location != null) {
+            out.writeDouble(location.getX());
+            out.writeDouble(location.getY());
+        }
+
+        writeEnum(out, property.getType());
+        writeDecimal(out, property.getPrice());
+        writeInteger(out, property.getBedrooms());
+        writeInteger(out, property.getBathrooms());
+        writeDouble(out, property.getArea());
+        writeStrings(out, property.getAmenities());
+        writeStrings(out, property.getImages());
+        writeString(out, property.getOwnerId());
+        writeEnum(out, property.getStatus());
+        writeDate(out, property.getCreatedAt());
+        writeDate(out, property.getUpdatedAt());
+        out.writeBoolean(property.getVersion() != null);
+        if (property.getVersion() != null) {
+            out.writeLong(property.getVersion());
+        }
+    }
+
+    static Property readProperty(DataInputStream in) throws IOException {
+        Property property = new Property();
+        property.setId(readString(in));
+        property.setTitle(readString(in));
+        property.setDescription(readString(in));
+        property.setAddress(readString(in));
+        property.setCity(readString(in));
+        property.setState(readString(in));
+        property.setZipCode(readString(in));
+        property.setCountry(readString(in));
+
+        if (in.readBoolean()) {
+            double x = in.readDouble();
+            double y = in.readDouble();
+            property.setLocation(new GeoJsonPoint(x, y));
+        }
+
+        int type = readVarInt(in);
+        property.setType(type == 0 ? null : TYPES[type - 1]);
+        property.setPrice(readDecimal(in));
+        property.setBedrooms(readInteger(in));
+        property.setBathrooms(readInteger(in));
+        property.setArea(readDouble(in));
+        property.setAmenities(readStrings(in));
+        property.setImages(readStrings(in));
+        property.setOwnerId(readString(in));
+        int status = readVarInt(in);
+        property.setStatus(status == 0 ? null : STATUSES[status - 1]);
+        property.setCreatedAt(readDate(in));
+        property.setUpdatedAt(readDate(in));
+        property.setVersion(in.readBoolean() ? in.readLong() : null);
+        return property;
+    }
+
+    static void writeSummary(DataOutputStream out, PropertySummary summary) throws IOException {
+        writeString(out, summary.getId());
+        writeString(out, summary.getTitle());
+        writeString(out, summary.getAddress());
+        writeString(out, summary.getCity());
+        writeString(out, summary.getState());
+        writeEnum(out, summary.getType());
+        writeEnum(out, summary.getStatus());
+        writeDecimal(out, summary.getPrice());
+        writeInteger(out, summary.getBedrooms());
+        writeInteger(out, summary.getBathrooms());
+        writeDouble(out, summary.getArea());
+        writeDouble(out, summary.getLatitude());
+        writeDouble(out, summary.getLongitude());
+        writeString(out, summary.getThumbnail());
+    }
+
+    static PropertySummary readSummary(DataInputStream in) throws IOException {
+        PropertySummary summary = new PropertySummary();
+        summary.setId(readString(in));
+        summary.setTitle(readString(in));
+        summary.setAddress(readString(in));
+        summary.setCity(readString(in));
+        summary.setState(readString(in));
+        int type = readVarInt(in);
+        summary.setType(type == 0 ? null : TYPES[type - 1]);
+        int status = readVarInt(in);
+        summary.setStatus(status == 0 ? null : STATUSES[status - 1]);
+        summary.setPrice(readDecimal(in));
+        summary.setBedrooms(readInteger(in));
+        summary.setBathrooms(readInteger(in));
+        summary.setArea(readDouble(in));
+        summary.setLatitude(readDouble(in));
+        summary.setLongitude(readDouble(in));
+        summary.setThumbnail(readString(in));
+        return summary;
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        if (values == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        writeVarInt(out, values.size() + 1);
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = readVarInt(in);
+        if (size == 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size - 1);
+        for (int i = 0; i < size - 1; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeVarInt(out, value);
+        }
+    }
+
+    static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readVarInt(in) : null;
+    }
+
+    static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        writeVarInt(out, unscaled.length + 1);
+        out.write(unscaled);
+        writeVarInt(out, value.scale());
+    }
+
+    static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length - 1];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), readVarInt(in));
+    }
+
+    static void writeDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    static Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    static void writeDate(DataOutputStream out, Date value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getTime());
+        }
+    }
+
+    static Date readDate(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new Date(in.readLong()) : null;
+    }
+
+    static void writeEnum(DataOutputStream out, Enum<?> value) throws IOException {
+        writeVarInt(out, value == null ? 0 : value.ordinal() + 1);
+    }
+}
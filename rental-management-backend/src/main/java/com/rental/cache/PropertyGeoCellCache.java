@@ -0,0 +1,224 @@
+package com.rental.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rental.config.RedisConfig;
+import com.rental.dto.PropertySummary;
+import com.rental.model.Property;
+import com.rental.repository.PropertyQueryBuilder;
+import com.rental.util.GeoHash;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves radius searches from cached geohash cells instead of per-request {@code $near} queries.
+ * Each cell caches the summary fields of every property whose location hashes into it; a search picks the finest grid
+ * level that covers its circle with few cells, then filters, sorts by distance and pages the
+ * merged candidates in memory. Nearby searches therefore share cells even when their centers differ.
+ */
+@Component
+public class PropertyGeoCellCache {
+
+    static final int[] PRECISIONS = {6, 5, 4}; // ~1.2km, ~4.9km and ~39km wide cells
+    static final String TAG_PREFIX = "geo:";
+
+    // Cells are loaded through a polygon slightly larger than the cell and then trimmed by hash,
+    // so geodesic polygon edges never drop a property that belongs to the cell
+    private static final double CELL_MARGIN_DEGREES = 0.001;
+
+    private static final String CACHE_NAME = RedisConfig.PROPERTY_GEO_CELL_CACHE;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${app.cache.property-geo-cell.max-cells:16}")
+    private int maxCells;
+
+    @Value("${app.cache.property-geo-cell.max-cell-size:2000}")
+    private int maxCellSize;
+
+    @Value("${app.cache.property-geo-cell.ttl:5m}")
+    private Duration ttl;
+
+    // Bumped by every eviction, so a cell load that raced one does not cache what it read (see EvictionSafeCache)
+    private final AtomicLong evictions = new AtomicLong();
+
+    // Cells holding more than maxCellSize properties are answered by MongoDB directly
+    private com.github.benmanes.caffeine.cache.Cache<String, Boolean> oversizedCells;
+
+    @PostConstruct
+    public void init() {
+        oversizedCells = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Returns the requested page for a geo search, or {@code null} when the search cannot be
+     * answered from cells (keyword or amenity filters, radius too large for the grid, or a cell too
+     * dense to cache).
+     */
+    public Page<PropertySummary> search(PropertyQueryBuilder query, Pageable pageable) {
+        if (query.hasTextFilters()) {
+            return null;
+        }
+        Set<String> cells = coveringCells(query.getLatitude(), query.getLongitude(), query.getRadius());
+        if (cells == null) {
+            return null;
+        }
+
+        Map<String, Property> candidates = new LinkedHashMap<>();
+        for (String cell : cells) {
+            List<Property> properties = cellContents(cell);
+            if (properties == null) {
+                return null;
+            }
+            for (Property property : properties) {
+                candidates.putIfAbsent(property.getId(), property);
+            }
+        }
+
+        List<Property> matches = new ArrayList<>();
+        for (Property property : candidates.values()) {
+            if (query.matches(property)) {
+                matches.add(property);
+            }
+        }
+        matches.sort(Comparator.comparingDouble(query::distanceTo));
+
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        List<PropertySummary> content = new ArrayList<>(to - from);
+        for (Property property : matches.subList(from, to)) {
+            content.add(PropertySummary.of(property));
+        }
+        return new PageImpl<>(content, pageable, matches.size());
+    }
+
+    /**
+     * Cache tags of the cells containing the property at every grid level.
+     */
+    public static Set<String> tagsOf(Property property) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (property.getLocation() != null) {
+            for (int precision : PRECISIONS) {
+                tags.add(TAG_PREFIX + GeoHash.encode(property.getLocation().getY(), property.getLocation().getX(), precision));
+            }
+        }
+        return tags;
+    }
+
+    public void evictCell(String cell) {
+        evictions.incrementAndGet();
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            cache.evict(cell);
+        }
+        oversizedCells.invalidate(cell);
+    }
+
+    public void evictAll() {
+        evictions.incrementAndGet();
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            cache.clear();
+        }
+        oversizedCells.invalidateAll();
+    }
+
+    private Set<String> coveringCells(double latitude, double longitude, double radius) {
+        for (int precision : PRECISIONS) {
+            Set<String> cells = GeoHash.coveringCells(latitude, longitude, radius, precision, maxCells);
+            if (cells != null) {
+                return cells;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Property> cellContents(String cell) {
+        if (oversizedCells.getIfPresent(cell) != null) {
+            return null;
+        }
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        List<Property> cached = cache != null ? cache.get(cell, List.class) : null;
+        if (cached != null) {
+            return cached;
+        }
+
+        long seen = evictions.get();
+        List<Property> loaded = loadCell(cell);
+        if (evictions.get() != seen) {
+            return loaded;
+        }
+        if (loaded == null) {
+            oversizedCells.put(cell, Boolean.TRUE);
+            return null;
+        }
+        if (cache != null) {
+            cache.putIfAbsent(cell, loaded);
+            // An eviction that slipped in while the cell was being put may have missed it
+            if (evictions.get() != seen) {
+                cache.evict(cell);
+            }
+        }
+        return loaded;
+    }
+
+    private List<Property> loadCell(String cell) {
+        double[] bounds = GeoHash.bounds(cell);
+        double minLat = Math.max(-90, bounds[0] - CELL_MARGIN_DEGREES);
+        double maxLat = Math.min(90, bounds[1] + CELL_MARGIN_DEGREES);
+        double minLng = Math.max(-180, bounds[2] - CELL_MARGIN_DEGREES);
+        double maxLng = Math.min(180, bounds[3] + CELL_MARGIN_DEGREES);
+        GeoJsonPolygon polygon = new GeoJsonPolygon(
+                new Point(minLng, minLat), new Point(maxLng, minLat),
+                new Point(maxLng, maxLat), new Point(minLng, maxLat),
+                new Point(minLng, minLat));
+
+        int limit = maxCellSize * 2 + 1;
+        List<Property> loaded = mongoTemplate.find(
+                PropertyQueryBuilder.summaryProjection(Query.query(Criteria.where("location").within(polygon)).limit(limit)),
+                Property.class);
+        if (loaded.size() == limit) {
+            return null; // truncated, so it cannot be trusted to hold the whole cell
+        }
+
+        List<Property> properties = new ArrayList<>();
+        for (Property property : loaded) {
+            if (GeoHash.encode(property.getLocation().getY(), property.getLocation().getX(), cell.length()).equals(cell)) {
+                properties.add(property);
+            }
+        }
+        if (properties.size() > maxCellSize) {
+            return null;
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,57 @@
+package com.rental.cache;
+
+import com.rental.model.Property;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PropertyListRedisSerializer implements RedisSerializer<List<Property>> {
+
+    @Override
+    public byte[] serialize(List<Property> properties) throws SerializationException {
+        if (properties == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 * (properties.size() + 1));
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(PropertyBinaryCodec.FORMAT_VERSION);
+            PropertyBinaryCodec.writeVarInt(out, properties.size());
+            for (Property property : properties) {
+                PropertyBinaryCodec.writeProperty(out, property);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new SerializationException("Could not serialize property list", ex);
+        }
+    }
+
+    @Override
+    public List<Property> deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readByte() != PropertyBinaryCodec.FORMAT_VERSION) {
+                return null;
+            }
+            int count = PropertyBinaryCodec.readVarInt(in);
+            List<Property> properties = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                properties.add(PropertyBinaryCodec.readProperty(in));
+            }
+            return properties;
+        } catch (IOException ex) {
+            throw new SerializationException("Could not deserialize property list", ex);
+        }
+    }
+}
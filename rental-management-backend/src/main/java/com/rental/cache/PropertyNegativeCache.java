@@ -0,0 +1,224 @@
+package com.rental.cache;
+
+import com.mongodb.client.MongoCursor;
+import com.rental.config.RedisConfig;
+import com.rental.dto.PropertySearchRequest;
+import com.rental.model.Property;
+import com.rental.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers lookups that found nothing, so bots and stale links asking for missing listings, and
+ * searches without matches, stop reaching MongoDB. Three layers answer "definitely nothing here":
+ * <ul>
+ *   <li>a Bloom filter of every property id, rebuilt periodically, which proves an id never
+ *   existed. It only vouches for ids whose ObjectId timestamp predates its scan, so listings
+ *   created since then, on any node or by the bulk import, are never reported missing;</li>
+ *   <li>a short-lived cache of ids that were looked up and not found, such as deleted listings;</li>
+ *   <li>a short-lived cache of search filters that matched nothing, keyed by filter signature so
+ *   every page and sort order shares it, and evicted by tag like cached search pages.</li>
+ * </ul>
+ * Each avoided MongoDB read is counted in {@code cache.negative.hits}.
+ */
+@Component
+public class PropertyNegativeCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PropertyNegativeCache.class);
+
+    private static final long MIN_EXPECTED_IDS = 10_000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PropertySearchCacheIndex searchCacheIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.cache.property-negative.bloom-false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.cache.property-negative.bloom-rebuild-interval:6h}")
+    private Duration rebuildInterval;
+
+    @Value("${app.cache.property-negative.retry-delay:30s}")
+    private Duration retryDelay;
+
+    // Margin for clocks of the nodes generating ids and for the delay between generating an id and inserting it
+    @Value("${app.cache.property-negative.clock-skew:5m}")
+    private Duration clockSkew;
+
+    private volatile KnownIds knownIds;
+    private volatile boolean running;
+    private Thread buildThread;
+
+    private Counter bloomHits;
+    private Counter missingHits;
+    private Counter emptySearchHits;
+
+    @PostConstruct
+    public void init() {
+        bloomHits = hitCounter("bloom");
+        missingHits = hitCounter("missing");
+        emptySearchHits = hitCounter("empty_search");
+    }
+
+    private Counter hitCounter(String source) {
+        return Counter.builder("cache.negative.hits")
+                .description("MongoDB reads avoided by negative caching")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        buildThread = new Thread(this::rebuildLoop, "property-id-filter");
+        buildThread.setDaemon(true);
+        buildThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (buildThread != null) {
+            buildThread.interrupt();
+        }
+    }
+
+    /**
+     * {@code true} when the property is known not to exist, without querying MongoDB.
+     */
+    public boolean isMissing(String id) {
+        KnownIds known = knownIds;
+        if (known != null && known.provesAbsent(id)) {
+            bloomHits.increment();
+            return true;
+        }
+        Cache cache = cacheManager.getCache(RedisConfig.PROPERTY_MISSING_CACHE);
+        if (cache != null && cache.get(id, Boolean.class) != null) {
+            missingHits.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public void recordMissing(String id) {
+        Cache cache = cacheManager.getCache(RedisConfig.PROPERTY_MISSING_CACHE);
+        if (cache != null) {
+            cache.putIfAbsent(id, Boolean.TRUE);
+        }
+    }
+
+    public void recordCreated(Property property) {
+        KnownIds known = knownIds;
+        if (known != null) {
+            known.filter().add(property.getId());
+        }
+        Cache cache = cacheManager.getCache(RedisConfig.PROPERTY_MISSING_CACHE);
+        if (cache != null) {
+            cache.evict(property.getId());
+        }
+    }
+
+    /**
+     * {@code true} when the request's filters recently matched no property at all.
+     */
+    public boolean isEmptySearch(PropertySearchRequest request) {
+        Cache cache = cacheManager.getCache(RedisConfig.PROPERTY_EMPTY_SEARCH_CACHE);
+        if (cache != null && cache.get(request.filterSignature(), Boolean.class) != null) {
+            emptySearchHits.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remembers that the request's filters matched nothing; {@code generation} is the
+     * {@link PropertySearchCacheIndex#generation()} read before the search ran.
+     */
+    public void recordEmptySearch(PropertySearchRequest request, long generation) {
+        Cache cache = cacheManager.getCache(RedisConfig.PROPERTY_EMPTY_SEARCH_CACHE);
+        if (cache != null) {
+            String cacheKey = request.filterSignature();
+            cache.putIfAbsent(cacheKey, Boolean.TRUE);
+            searchCacheIndex.register(RedisConfig.PROPERTY_EMPTY_SEARCH_CACHE, cacheKey, request, generation);
+        }
+    }
+
+    private void rebuildLoop() {
+        while (running) {
+            Duration delay = rebuildInterval;
+            try {
+                knownIds = load();
+            } catch (Exception ex) {
+                if (!running) {
+                    return;
+                }
+                delay = retryDelay;
+                log.warn("Could not load the property id filter, retrying in {}", retryDelay, ex);
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay.toMillis());
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private KnownIds load() {
+        long startedAt = System.currentTimeMillis();
+        String collection = mongoTemplate.getCollectionName(Property.class);
+        // Room to grow until the next rebuild without the false positive rate degrading
+        long expected = Math.max(MIN_EXPECTED_IDS, mongoTemplate.estimatedCount(collection) * 2);
+        BloomFilter filter = new BloomFilter(expected, falsePositiveRate);
+
+        long loaded = 0;
+        try (MongoCursor<Document> ids = mongoTemplate.getCollection(collection).find()
+                .projection(new Document("_id", 1))
+                .batchSize(5000)
+                .iterator()) {
+            while (ids.hasNext()) {
+                filter.add(ids.next().get("_id").toString());
+                loaded++;
+            }
+        }
+        log.info("Loaded property id filter with {} ids ({} bits)", loaded, filter.bitCount());
+        return new KnownIds(filter, (startedAt - clockSkew.toMillis()) / 1000);
+    }
+
+    private record KnownIds(BloomFilter filter, long cutoffSeconds) {
+
+        boolean provesAbsent(String id) {
+            if (!ObjectId.isValid(id)) {
+                return false;
+            }
+            ObjectId objectId = new ObjectId(id);
+            // Hex ids match regardless of case, the filter holds the lowercase form
+            return objectId.getTimestamp() < cutoffSeconds && !filter.mightContain(objectId.toHexString());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.rental.cache;
+
+import com.rental.model.Property;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+
+public class PropertyRedisSerializer implements RedisSerializer<Property> {
+
+    @Override
+    public byte[] serialize(Property value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return PropertyBinaryCodec.encode(value);
+        } catch (IOException ex) {
+            throw new SerializationException("Could not serialize property", ex);
+        }
+    }
+
+    @Override
+    public Property deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return PropertyBinaryCodec.decode(bytes);
+        } catch (IOException ex) {
+            throw new SerializationException("Could not deserialize property", ex);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.rental.cache;
+
+import com.rental.config.RedisConfig;
+import com.rental.dto.PropertySearchRequest;
+import com.rental.model.Property;
+import com.rental.util.GeoHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tag index over cached search pages, facet counts and empty-search markers. Every cached entry is
+ * registered under the tags of its most selective filter; a property write evicts only the entries
+ * registered under the tags the property carries before and after the change. With
+ * {@code app.cache.search-eviction=all} every write clears the search caches instead, as a baseline
+ * to measure the tag index against.
+ */
+@Component
+public class PropertySearchCacheIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PropertySearchCacheIndex.class);
+
+    private static final List<String> CACHE_NAMES = List.of(
+            RedisConfig.PROPERTY_SEARCH_CACHE, RedisConfig.PROPERTY_FACETS_CACHE, RedisConfig.PROPERTY_EMPTY_SEARCH_CACHE);
+
+    static final String ALL = "all";
+    static final int GEO_PRECISION = 5;
+    static final int MAX_TAGS = 32;
+    static final BigDecimal PRICE_BAND = BigDecimal.valueOf(500);
+
+    private static final String KEY_PREFIX = "cache-tags:";
+    private static final String GENERATION_KEY = KEY_PREFIX + "generation";
+    private static final long UNKNOWN_GENERATION = -1;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PropertyGeoCellCache geoCellCache;
+
+    @Value("${app.cache.search-tag-ttl:10m}")
+    private Duration tagTtl;
+
+    @Value("${app.cache.search-eviction:tags}")
+    private String evictionMode; // tags or all
+
+    /**
+     * Eviction generation shared by all nodes; read it before loading an entry and pass it to
+     * {@link #register} once the entry is stored.
+     */
+    public long generation() {
+        try {
+            String generation = redisTemplate.opsForValue().get(GENERATION_KEY);
+            return generation != null ? Long.parseLong(generation) : 0;
+        } catch (Exception ex) {
+            log.warn("Could not read the search cache generation", ex);
+            return UNKNOWN_GENERATION;
+        }
+    }
+
+    /**
+     * Indexes a stored entry under the tags of its filters. An eviction that ran since
+     * {@code generation} was read may have missed the entry, which can then hold data from before
+     * the write, so the entry is evicted instead of being left unindexed.
+     */
+    public void register(String cacheName, String cacheKey, PropertySearchRequest request, long generation) {
+        boolean registered = true;
+        try {
+            for (String tag : tagsFor(request)) {
+                String tagKey = tagKey(cacheName, tag);
+                redisTemplate.opsForSet().add(tagKey, cacheKey);
+                redisTemplate.expire(tagKey, tagTtl);
+            }
+        } catch (Exception ex) {
+            log.warn("Could not register search cache key {}", cacheKey, ex);
+            registered = false;
+        }
+        if (!registered || generation == UNKNOWN_GENERATION || generation() != generation) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.evict(cacheKey);
+            }
+        }
+    }
+
+    public Set<String> tagsOf(Property property) {
+        Set<String> tags = new LinkedHashSet<>();
+        tags.add(ALL);
+        if (property.getCity() != null) {
+            tags.add("city:" + property.getCity().toLowerCase(Locale.ROOT));
+        }
+        if (property.getType() != null) {
+            tags.add("type:" + property.getType().name());
+        }
+        if (property.getPrice() != null) {
+            tags.add("price:" + priceBand(property.getPrice()));
+        }
+        if (property.getLocation() != null) {
+            tags.add("cell:" + GeoHash.encode(property.getLocation().getY(), property.getLocation().getX(), GEO_PRECISION));
+            tags.addAll(PropertyGeoCellCache.tagsOf(property));
+        }
+        return tags;
+    }
+
+    public void evict(Property property) {
+        evictTags(tagsOf(property));
+    }
+
+    public void evictTags(Set<String> tags) {
+        if ("all".equalsIgnoreCase(evictionMode)) {
+            evictAll();
+            return;
+        }
+        // Before the tag sets are read, so a load registering after them sees the new generation
+        nextGeneration();
+        for (String tag : tags) {
+            // Geo cell entries are keyed by the cell itself, so they need no tag set
+            if (tag.startsWith(PropertyGeoCellCache.TAG_PREFIX)) {
+                geoCellCache.evictCell(tag.substring(PropertyGeoCellCache.TAG_PREFIX.length()));
+            }
+        }
+        for (String cacheName : CACHE_NAMES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                evictTags(cache, tags);
+            }
+        }
+    }
+
+    private void evictTags(Cache cache, Set<String> tags) {
+        for (String tag : tags) {
+            if (tag.startsWith(PropertyGeoCellCache.TAG_PREFIX)) {
+                continue;
+            }
+            String tagKey = tagKey(cache.getName(), tag);
+            try {
+                Set<String> cacheKeys = redisTemplate.opsForSet().members(tagKey);
+                if (cacheKeys == null || cacheKeys.isEmpty()) {
+                    continue;
+                }
+                cacheKeys.forEach(cache::evict);
+                redisTemplate.opsForSet().remove(tagKey, cacheKeys.toArray());
+            } catch (Exception ex) {
+                log.warn("Could not evict search cache tag {}, clearing cache {}", tag, cache.getName(), ex);
+                cache.clear();
+                return;
+            }
+        }
+    }
+
+    private void nextGeneration() {
+        try {
+            redisTemplate.opsForValue().increment(GENERATION_KEY);
+        } catch (Exception ex) {
+            log.warn("Could not advance the search cache generation", ex);
+        }
+    }
+
+    private static String tagKey(String cacheName, String tag) {
+        return KEY_PREFIX + cacheName + ":" + tag;
+    }
+
+    /**
+     * Drops every cached search page, facet count and empty-search marker at once, for bulk writes
+     * that touch too many tags to track. Tag sets left behind only point at evicted keys and expire
+     * on their own.
+     */
+    public void evictAll() {
+        nextGeneration();
+        for (String cacheName : CACHE_NAMES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        geoCellCache.evictAll();
+    }
+
+    Set<String> tagsFor(PropertySearchRequest request) {
+        if (request.getCity() != null && !request.getCity().isEmpty()) {
+            return Collections.singleton("city:" + request.getCity().toLowerCase(Locale.ROOT));
+        }
+
+        if (request.getLatitude() != null && request.getLongitude() != null) {
+            double radius = request.getRadius() != null ? request.getRadius() : 5000;
+            Set<String> cells = GeoHash.coveringCells(
+                    request.getLatitude(), request.getLongitude(), radius, GEO_PRECISION, MAX_TAGS);
+            if (cells == null) {
+                return Collections.singleton(ALL);
+            }
+            Set<String> tags = new LinkedHashSet<>();
+            cells.forEach(cell -> tags.add("cell:" + cell));
+            return tags;
+        }
+
+        if (request.getType() != null && !request.getType().isEmpty()) {
+            return Collections.singleton("type:" + request.getType().toUpperCase(Locale.ROOT));
+        }
+
+        if (request.getMinPrice() != null && request.getMaxPrice() != null) {
+            long from = priceBand(BigDecimal.valueOf(request.getMinPrice()));
+            long to = priceBand(BigDecimal.valueOf(request.getMaxPrice()));
+            if (to >= from && to - from < MAX_TAGS) {
+                Set<String> tags = new LinkedHashSet<>();
+                for (long band = from; band <= to; band++) {
+                    tags.add("price:" + band);
+                }
+                return tags;
+            }
+        }
+
+        return Collections.singleton(ALL);
+    }
+
+    private static long priceBand(BigDecimal price) {
+        return price.divideToIntegralValue(PRICE_BAND).longValue();
+    }
+}
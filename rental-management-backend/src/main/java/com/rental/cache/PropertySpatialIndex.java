@@ -0,0 +1,285 @@
+package com.rental.cache;
+
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.rental.model.Property;
+import com.rental.repository.PropertyQueryBuilder;
+import com.rental.util.GeoHash;
+import com.rental.util.KdTree;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Optional in-process index answering radius searches without querying MongoDB. It holds only
+ * the fields searches filter on, in a k-d tree snapshot over primitive arrays plus an overlay of
+ * documents changed since the snapshot was built; a change stream keeps the overlay current
+ * (which requires MongoDB to run as a replica set). Until the first snapshot is loaded, or while
+ * the change stream is down, {@link #search} returns {@code null} and callers use MongoDB.
+ */
+@Component
+@ConditionalOnProperty(name = "app.spatial-index.enabled", havingValue = "true")
+public class PropertySpatialIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PropertySpatialIndex.class);
+
+    private static final double METERS_PER_DEGREE = 111_320d;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.spatial-index.rebuild-threshold:10000}")
+    private int rebuildThreshold;
+
+    @Value("${app.spatial-index.retry-delay:30s}")
+    private Duration retryDelay;
+
+    private volatile State state;
+    private volatile boolean running;
+    private Thread syncThread;
+
+    public record Result(List<String> ids, int total) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        syncThread = new Thread(this::sync, "property-spatial-index");
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (syncThread != null) {
+            syncThread.interrupt();
+        }
+    }
+
+    /**
+     * Ids of the matching properties ordered by distance, or {@code null} when the index is not
+     * ready or cannot evaluate the query (city, keyword or amenity filters, or a radius crossing a
+     * pole or the antimeridian).
+     */
+    public Result search(PropertyQueryBuilder query) {
+        State current = state;
+        if (current == null || !query.isGeo() || query.getCity() != null || query.hasTextFilters()) {
+            return null;
+        }
+
+        double latitude = query.getLatitude();
+        double longitude = query.getLongitude();
+        double radius = query.getRadius();
+        double latDelta = radius / METERS_PER_DEGREE;
+        if (latitude - latDelta <= -90 || latitude + latDelta >= 90) {
+            return null;
+        }
+        // Widen by the latitude nearest the pole, where a degree of longitude is shortest
+        double cos = Math.cos(Math.toRadians(Math.max(Math.abs(latitude - latDelta), Math.abs(latitude + latDelta))));
+        double lngDelta = radius / (METERS_PER_DEGREE * cos);
+        if (longitude - lngDelta < -180 || longitude + lngDelta > 180) {
+            return null;
+        }
+
+        Filter filter = new Filter(query);
+        List<Hit> hits = new ArrayList<>();
+        Snapshot snapshot = current.snapshot();
+        snapshot.tree().rangeQuery(latitude - latDelta, latitude + latDelta, longitude - lngDelta, longitude + lngDelta, i -> {
+            if (!current.overlay().containsKey(snapshot.entries()[i].id())) {
+                filter.collect(snapshot.entries()[i], hits);
+            }
+        });
+        for (Entry entry : current.overlay().values()) {
+            if (entry != Entry.REMOVED) {
+                filter.collect(entry, hits);
+            }
+        }
+
+        hits.sort(Comparator.comparingDouble(Hit::distance));
+        List<String> ids = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            ids.add(hit.id());
+        }
+        return new Result(ids, ids.size());
+    }
+
+    private void sync() {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Property.class));
+        while (running) {
+            // Open the change stream before loading so no write between the two is missed
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> changes =
+                         collection.watch().fullDocument(FullDocument.UPDATE_LOOKUP).cursor()) {
+                state = new State(loadSnapshot(), new ConcurrentHashMap<>());
+                log.info("Loaded spatial index with {} properties", state.snapshot().tree().size());
+
+                while (running) {
+                    ChangeStreamDocument<Document> change = changes.tryNext();
+                    if (change != null) {
+                        apply(change);
+                    }
+                    if (state.overlay().size() >= rebuildThreshold) {
+                        state = new State(rebuild(state), new ConcurrentHashMap<>());
+                    }
+                }
+            } catch (Exception ex) {
+                state = null;
+                if (!running) {
+                    return;
+                }
+                log.warn("Spatial index is unavailable, retrying in {}", retryDelay, ex);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(retryDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private Snapshot loadSnapshot() {
+        Query query = new Query().cursorBatchSize(5000);
+        query.fields().include("location", "price", "type", "status", "bedrooms");
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Property> properties = mongoTemplate.stream(query, Property.class)) {
+            properties.map(Entry::of).filter(entry -> entry != Entry.REMOVED).forEach(entries::add);
+        }
+        return Snapshot.of(entries);
+    }
+
+    private Snapshot rebuild(State current) {
+        Map<String, Entry> overlay = current.overlay();
+        List<Entry> entries = new ArrayList<>(current.snapshot().entries().length + overlay.size());
+        for (Entry entry : current.snapshot().entries()) {
+            if (!overlay.containsKey(entry.id())) {
+                entries.add(entry);
+            }
+        }
+        for (Entry entry : overlay.values()) {
+            if (entry != Entry.REMOVED) {
+                entries.add(entry);
+            }
+        }
+        return Snapshot.of(entries);
+    }
+
+    private void apply(ChangeStreamDocument<Document> change) {
+        BsonValue key = change.getDocumentKey() != null ? change.getDocumentKey().get("_id") : null;
+        if (key == null) {
+            return;
+        }
+        String id = key.isObjectId() ? key.asObjectId().getValue().toHexString() : key.asString().getValue();
+
+        Document document = change.getFullDocument();
+        switch (change.getOperationType()) {
+            case INSERT, UPDATE, REPLACE -> {
+                Entry entry = document != null
+                        ? Entry.of(mongoTemplate.getConverter().read(Property.class, document))
+                        : Entry.REMOVED; // deleted again before the update could be looked up
+                state.overlay().put(id, entry);
+            }
+            case DELETE -> state.overlay().put(id, Entry.REMOVED);
+            case DROP, RENAME, DROP_DATABASE, INVALIDATE ->
+                    throw new IllegalStateException("Properties collection was " + change.getOperationType());
+            default -> {
+            }
+        }
+    }
+
+    private record State(Snapshot snapshot, Map<String, Entry> overlay) {
+    }
+
+    private record Snapshot(Entry[] entries, KdTree tree) {
+
+        static Snapshot of(List<Entry> entries) {
+            Entry[] array = entries.toArray(new Entry[0]);
+            double[] latitudes = new double[array.length];
+            double[] longitudes = new double[array.length];
+            for (int i = 0; i < array.length; i++) {
+                latitudes[i] = array[i].latitude();
+                longitudes[i] = array[i].longitude();
+            }
+            return new Snapshot(array, new KdTree(latitudes, longitudes));
+        }
+    }
+
+    /**
+     * Searchable fields of one property; a missing price or bedroom count is stored as NaN or -1.
+     */
+    private record Entry(String id, double latitude, double longitude, double price,
+                         Property.PropertyType type, Property.PropertyStatus status, int bedrooms) {
+
+        static final Entry REMOVED = new Entry("", 0, 0, Double.NaN, null, null, -1);
+
+        static Entry of(Property property) {
+            if (property.getLocation() == null) {
+                return REMOVED;
+            }
+            return new Entry(property.getId(),
+                    property.getLocation().getY(),
+                    property.getLocation().getX(),
+                    property.getPrice() != null ? property.getPrice().doubleValue() : Double.NaN,
+                    property.getType(),
+                    property.getStatus(),
+                    property.getBedrooms() != null ? property.getBedrooms() : -1);
+        }
+    }
+
+    private record Hit(String id, double distance) {
+    }
+
+    private static final class Filter {
+
+        private final PropertyQueryBuilder query;
+        private final double minPrice;
+        private final double maxPrice;
+
+        Filter(PropertyQueryBuilder query) {
+            this.query = query;
+            this.minPrice = query.getMinPrice() != null ? query.getMinPrice().doubleValue() : Double.NEGATIVE_INFINITY;
+            this.maxPrice = query.getMaxPrice() != null ? query.getMaxPrice().doubleValue() : Double.POSITIVE_INFINITY;
+        }
+
+        void collect(Entry entry, List<Hit> hits) {
+            if (query.getStatus() != null && query.getStatus() != entry.status()) {
+                return;
+            }
+            if (query.getType() != null && query.getType() != entry.type()) {
+                return;
+            }
+            if ((query.getMinPrice() != null || query.getMaxPrice() != null)
+                    && !(entry.price() >= minPrice && entry.price() <= maxPrice)) {
+                return;
+            }
+            if (query.getMinBedrooms() != null && entry.bedrooms() < query.getMinBedrooms()) {
+                return;
+            }
+            double distance = GeoHash.distanceMeters(query.getLatitude(), query.getLongitude(), entry.latitude(), entry.longitude());
+            if (distance <= query.getRadius()) {
+                hits.add(new Hit(entry.id(), distance));
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.rental.cache;
+
+import com.rental.dto.PropertySummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PropertySummaryPageRedisSerializer implements RedisSerializer<Page<PropertySummary>> {
+
+    @Override
+    public byte[] serialize(Page<PropertySummary> page) throws SerializationException {
+        if (page == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 * (page.getNumberOfElements() + 1));
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(PropertyBinaryCodec.FORMAT_VERSION);
+            PropertyBinaryCodec.writeVarInt(out, page.getNumber());
+            PropertyBinaryCodec.writeVarInt(out, page.getSize());
+            out.writeLong(page.getTotalElements());
+            PropertyBinaryCodec.writeVarInt(out, page.getNumberOfElements());
+            for (PropertySummary summary : page.getContent()) {
+                PropertyBinaryCodec.writeSummary(out, summary);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new SerializationException("Could not serialize property summary page", ex);
+        }
+    }
+
+    @Override
+    public Page<PropertySummary> deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readByte() != PropertyBinaryCodec.FORMAT_VERSION) {
+                return null;
+            }
+            int number = PropertyBinaryCodec.readVarInt(in);
+            int size = PropertyBinaryCodec.readVarInt(in);
+            long total = in.readLong();
+            int count = PropertyBinaryCodec.readVarInt(in);
+            List<PropertySummary> content = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                content.add(PropertyBinaryCodec.readSummary(in));
+            }
+            return new PageImpl<>(content, PageRequest.of(number, size), total);
+        } catch (IOException ex) {
+            throw new SerializationException("Could not deserialize property summary page", ex);
+        }
+    }
+}
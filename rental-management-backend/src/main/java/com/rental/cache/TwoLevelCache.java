@@ -0,0 +1,388 @@
+package com.rental.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache that keeps a bounded in-process copy (L1) in front of the shared Redis cache (L2).
+ * Writes go to both tiers. Overwrites and evictions are broadcast so other nodes drop their L1
+ * copy; values stored after a miss ({@link #putIfAbsent} and loads) are not, since they change
+ * nothing another node could have cached.
+ * <p>
+ * Loads through {@link #get(Object, Callable)} (what {@code @Cacheable(sync = true)} uses) are
+ * single-flight: concurrent misses for a key on one node wait for a single loader call, and with a
+ * load lease configured only one node at a time loads a key while the others poll Redis for its
+ * result, or load it themselves once the lease is gone without one. Entries this node loaded can
+ * also be refreshed shortly before their Redis TTL ends, so hot keys are reloaded by one request
+ * instead of missing for everyone at once.
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache;
+    private final Cache remoteCache;
+    private final TwoLevelCacheManager cacheManager;
+    private final TwoLevelCacheManager.LoadSpec loadSpec;
+
+    // Loads running on this node; later callers for the same key wait on the first one
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // When entries this node loaded expire from Redis and how long loading them took
+    private final com.github.benmanes.caffeine.cache.Cache<Object, LoadTiming> loadTimings;
+
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Round trips to Redis; local hits never reach these
+    private final Timer remoteHitTimer;
+    private final Timer remoteMissTimer;
+    private final Timer remotePutTimer;
+
+    private final Counter loadedCount;
+    private final Counter coalescedCount;
+    private final Counter leaseWaitCount;
+    private final Counter refreshedCount;
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache,
+                         Cache remoteCache,
+                         TwoLevelCacheManager cacheManager,
+                         MeterRegistry meterRegistry,
+                         TwoLevelCacheManager.LoadSpec loadSpec) {
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.cacheManager = cacheManager;
+        this.loadSpec = loadSpec;
+        this.loadTimings = loadSpec.refreshTtl() != null
+                ? Caffeine.newBuilder().maximumSize(loadSpec.maxTrackedKeys()).expireAfterWrite(loadSpec.refreshTtl()).build()
+                : null;
+        this.remoteHitTimer = remoteTimer(meterRegistry, "cache.remote.gets", "hit");
+        this.remoteMissTimer = remoteTimer(meterRegistry, "cache.remote.gets", "miss");
+        this.remotePutTimer = remoteTimer(meterRegistry, "cache.remote.puts", "success");
+        this.loadedCount = loadCounter(meterRegistry, "loaded");
+        this.coalescedCount = loadCounter(meterRegistry, "coalesced");
+        this.leaseWaitCount = loadCounter(meterRegistry, "lease_wait");
+        this.refreshedCount = loadCounter(meterRegistry, "refreshed");
+    }
+
+    private Counter loadCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("cache.loads")
+                .description("Cache misses by how they were resolved")
+                .tag("cache", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Timer remoteTimer(MeterRegistry meterRegistry, String metric, String result) {
+        return Timer.builder(metric)
+                .description("Latency of Redis operations behind the local cache")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remoteCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = localCache.getIfPresent(key);
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+
+        long start = System.nanoTime();
+        ValueWrapper wrapper = remoteCache.get(key);
+        long elapsed = System.nanoTime() - start;
+        if (wrapper != null && wrapper.get() != null) {
+            remoteHits.increment();
+            remoteHitTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            localCache.put(key, wrapper.get());
+            return wrapper;
+        }
+
+        remoteMisses.increment();
+        remoteMissTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return (T) load(key, valueLoader);
+        }
+        if (shouldRefresh(key)) {
+            refresh(key, valueLoader);
+        }
+        return (T) wrapper.get();
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            coalescedCount.increment();
+            try {
+                return leader.join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+            }
+        }
+
+        try {
+            Object value = loadWithLease(key, valueLoader);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    // The request that wins the refresh reloads the entry; everyone else keeps reading the current value
+    private void refresh(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, flight) != null) {
+            return;
+        }
+        try {
+            flight.complete(callAndPut(key, valueLoader));
+            refreshedCount.increment();
+        } catch (RuntimeException ex) {
+            // The current value is still valid; stop refreshing it and let it expire normally
+            forgetTiming(key);
+            flight.completeExceptionally(ex);
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private Object loadWithLease(Object key, Callable<?> valueLoader) {
+        if (loadSpec.leaseTtl() == null) {
+            return callAndPut(key, valueLoader);
+        }
+
+        String token = UUID.randomUUID().toString();
+        if (cacheManager.acquireLease(name, key, token, loadSpec.leaseTtl())) {
+            try {
+                return callAndPut(key, valueLoader);
+            } finally {
+                cacheManager.releaseLease(name, key, token);
+            }
+        }
+
+        // Another node is loading the key; its result lands in Redis before it releases the lease
+        long deadline = System.nanoTime() + loadSpec.leaseTtl().toNanos();
+        try {
+            while (System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(loadSpec.leasePollInterval().toMillis());
+                // Checked before the value, so a released lease with no value means the holder's load failed
+                boolean held = cacheManager.isLeaseHeld(name, key);
+                ValueWrapper wrapper = remoteCache.get(key);
+                if (wrapper != null && wrapper.get() != null) {
+                    leaseWaitCount.increment();
+                    localCache.put(key, wrapper.get());
+                    return wrapper.get();
+                }
+                if (!held) {
+                    break;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        // The lease holder failed or is too slow, so load without it
+        return callAndPut(key, valueLoader);
+    }
+
+    private Object callAndPut(Object key, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        long loadNanos = System.nanoTime() - start;
+        loadedCount.increment();
+        forgetTiming(key);
+        fill(key, value);
+        if (loadTimings != null && value != null) {
+            loadTimings.put(key, new LoadTiming(System.nanoTime() + loadSpec.refreshTtl().toNanos(), loadNanos));
+        }
+        return value;
+    }
+
+    /**
+     * XFetch: refresh once {@code now - loadTime * beta * ln(random)} passes the expiry, which
+     * becomes likely only in the last few load times before the entry would expire.
+     */
+    private boolean shouldRefresh(Object key) {
+        LoadTiming timing = loadTimings != null ? loadTimings.getIfPresent(key) : null;
+        if (timing == null) {
+            return false;
+        }
+        double gap = timing.loadNanos() * loadSpec.refreshBeta() * -Math.log(ThreadLocalRandom.current().nextDouble());
+        return System.nanoTime() + gap >= timing.expiresAtNanos();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        forgetTiming(key);
+        fill(key, value);
+        cacheManager.publishEviction(name, key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        if (existing == null) {
+            fill(key, value);
+        }
+        return existing;
+    }
+
+    // Stores a value in both tiers without telling other nodes, for entries that were missing
+    private void fill(Object key, Object value) {
+        puts.increment();
+        remotePutTimer.record(() -> remoteCache.put(key, value));
+        if (value != null) {
+            localCache.put(key, value);
+        } else {
+            localCache.invalidate(key);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        forgetTiming(key);
+        evictions.increment();
+        remoteCache.evict(key);
+        localCache.invalidate(key);
+        cacheManager.publishEviction(name, key);
+    }
+
+    @Override
+    public void clear() {
+        forgetAllTimings();
+        remoteCache.clear();
+        localCache.invalidateAll();
+        cacheManager.publishClear(name);
+    }
+
+    // Another node wrote the entry, so the Redis expiry recorded here no longer applies
+    void evictLocal(Object key) {
+        forgetTiming(key);
+        localCache.invalidate(key);
+    }
+
+    void clearLocal() {
+        forgetAllTimings();
+        localCache.invalidateAll();
+    }
+
+    private void forgetTiming(Object key) {
+        if (loadTimings != null) {
+            loadTimings.invalidate(key);
+        }
+    }
+
+    private void forgetAllTimings() {
+        if (loadTimings != null) {
+            loadTimings.invalidateAll();
+        }
+    }
+
+    long localHitCount() {
+        return localCache.stats().hitCount();
+    }
+
+    long remoteHitCount() {
+        return remoteHits.sum();
+    }
+
+    long remoteMissCount() {
+        return remoteMisses.sum();
+    }
+
+    long putCount() {
+        return puts.sum();
+    }
+
+    // Explicit evictions plus entries the local tier dropped for size or age
+    long evictionCount() {
+        return evictions.sum() + localCache.stats().evictionCount();
+    }
+
+    long localSize() {
+        return localCache.estimatedSize();
+    }
+
+    public Map<String, Object> getStatistics() {
+        CacheStats stats = localCache.stats();
+
+        Map<String, Object> local = new LinkedHashMap<>();
+        local.put("hits", stats.hitCount());
+        local.put("misses", stats.missCount());
+        local.put("evictions", stats.evictionCount());
+        local.put("hitRate", stats.hitRate());
+        local.put("size", localCache.estimatedSize());
+
+        Map<String, Object> remote = new LinkedHashMap<>();
+        long hits = remoteHits.sum();
+        long misses = remoteMisses.sum();
+        remote.put("hits", hits);
+        remote.put("misses", misses);
+        remote.put("hitRate", hits + misses == 0 ? 1.0 : (double) hits / (hits + misses));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("local", local);
+        result.put("remote", remote);
+        return result;
+    }
+
+    private record LoadTiming(long expiresAtNanos, long loadNanos) {
+    }
+}
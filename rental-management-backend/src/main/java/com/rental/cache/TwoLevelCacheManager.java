@@ -0,0 +1,225 @@
+package com.rental.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps the Redis cache manager with a Caffeine near cache per cache name. Evictions are
+ * published on a Redis channel so every node keeps its near cache coherent. Loads through
+ * {@link Cache#get(Object, java.util.concurrent.Callable)} can additionally be coordinated
+ * across nodes with a Redis lease and refreshed ahead of expiry; see {@link TwoLevelCache}.
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    private static final String EVICT = "E";
+    private static final String CLEAR = "C";
+
+    private static final String LEASE_PREFIX = "cache-lease:";
+    // Deletes the lease only while it still holds our token, so an expired lease taken over by another node survives
+    private static final RedisScript<Long> RELEASE_LEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final long localMaxSize;
+    private final Duration localTtl;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, LocalCacheSpec> localSpecs = new ConcurrentHashMap<>();
+    private final Map<String, EarlyRefreshSpec> earlyRefreshSpecs = new ConcurrentHashMap<>();
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+    private Duration leaseTtl;
+    private Duration leasePollInterval = Duration.ofMillis(25);
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager,
+                                StringRedisTemplate redisTemplate,
+                                String channel,
+                                long localMaxSize,
+                                Duration localTtl) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+    }
+
+    public TwoLevelCacheManager withLocalCache(String name, long maxSize, Duration ttl) {
+        localSpecs.put(name, new LocalCacheSpec(maxSize, ttl));
+        return this;
+    }
+
+    /**
+     * Refreshes entries of {@code name} probabilistically before their Redis TTL runs out
+     * (XFetch): the closer an entry is to expiry and the longer it took to load, the likelier a
+     * read reloads it. A {@code beta} above 1 refreshes earlier, 0 disables refreshing.
+     */
+    public TwoLevelCacheManager withEarlyRefresh(String name, Duration remoteTtl, double beta) {
+        if (beta > 0) {
+            earlyRefreshSpecs.put(name, new EarlyRefreshSpec(remoteTtl, beta));
+        }
+        return this;
+    }
+
+    /**
+     * Lets only the node holding a Redis lease on a key run its loader; other nodes poll Redis
+     * for the result until the lease is released or expires and then load on their own.
+     */
+    public TwoLevelCacheManager withLoadLease(Duration ttl, Duration pollInterval) {
+        this.leaseTtl = ttl;
+        this.leasePollInterval = pollInterval;
+        return this;
+    }
+
+    /**
+     * Registry for the Redis latency timers of caches created from now on.
+     */
+    public TwoLevelCacheManager withMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        return this;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    private TwoLevelCache createCache(String name) {
+        Cache remoteCache = remoteCacheManager.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        LocalCacheSpec spec = localSpecs.getOrDefault(name, new LocalCacheSpec(localMaxSize, localTtl));
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache = Caffeine.newBuilder()
+                .maximumSize(spec.maxSize())
+                .expireAfterWrite(spec.ttl())
+                .recordStats()
+                .build();
+        EarlyRefreshSpec refresh = earlyRefreshSpecs.get(name);
+        LoadSpec loadSpec = new LoadSpec(refresh != null ? refresh.remoteTtl() : null, refresh != null ? refresh.beta() : 0,
+                spec.maxSize(), leaseTtl, leasePollInterval);
+        return new TwoLevelCache(name, localCache, remoteCache, this, meterRegistry, loadSpec);
+    }
+
+    /**
+     * Tries to take the load lease of a key; {@code true} also when Redis cannot be reached, since
+     * the caller then has nobody to coordinate with.
+     */
+    boolean acquireLease(String cacheName, Object key, String token, Duration ttl) {
+        try {
+            return !Boolean.FALSE.equals(redisTemplate.opsForValue().setIfAbsent(leaseKey(cacheName, key), token, ttl));
+        } catch (Exception ex) {
+            log.warn("Could not acquire load lease for {} in cache {}", key, cacheName, ex);
+            return true;
+        }
+    }
+
+    /**
+     * Whether some node still holds the load lease of a key; {@code false} when Redis cannot be
+     * reached, so waiters stop waiting for a holder they cannot see.
+     */
+    boolean isLeaseHeld(String cacheName, Object key) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(leaseKey(cacheName, key)));
+        } catch (Exception ex) {
+            log.warn("Could not check load lease for {} in cache {}", key, cacheName, ex);
+            return false;
+        }
+    }
+
+    void releaseLease(String cacheName, Object key, String token) {
+        try {
+            redisTemplate.execute(RELEASE_LEASE, Collections.singletonList(leaseKey(cacheName, key)), token);
+        } catch (Exception ex) {
+            log.warn("Could not release load lease for {} in cache {}", key, cacheName, ex);
+        }
+    }
+
+    private static String leaseKey(String cacheName, Object key) {
+        return LEASE_PREFIX + cacheName + ":" + key;
+    }
+
+    void publishEviction(String cacheName, Object key) {
+        publish(nodeId + "|" + cacheName + "|" + EVICT + "|" + key);
+    }
+
+    void publishClear(String cacheName) {
+        publish(nodeId + "|" + cacheName + "|" + CLEAR);
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (Exception ex) {
+            log.warn("Could not publish cache invalidation on channel {}", channel, ex);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+
+        if (CLEAR.equals(parts[2])) {
+            cache.clearLocal();
+        } else if (EVICT.equals(parts[2]) && parts.length == 4) {
+            cache.evictLocal(parts[3]);
+        }
+    }
+
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> statistics.put(name, cache.getStatistics()));
+        return statistics;
+    }
+
+    private record LocalCacheSpec(long maxSize, Duration ttl) {
+    }
+
+    private record EarlyRefreshSpec(Duration remoteTtl, double beta) {
+    }
+
+    /**
+     * How a cache loads missing entries: early refresh is off when {@code refreshTtl} is
+     * {@code null}, the Redis lease when {@code leaseTtl} is.
+     */
+    record LoadSpec(Duration refreshTtl, double refreshBeta, long maxTrackedKeys,
+                    Duration leaseTtl, Duration leasePollInterval) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.rental.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the standard {@code cache.gets}, {@code cache.puts}, {@code cache.evictions} and
+ * {@code cache.size} meters for every {@link TwoLevelCache}, plus the hits of each tier, so Boot's
+ * cache metrics cover the custom cache manager. Redis latency is timed by the cache itself.
+ */
+@Component
+public class TwoLevelCacheMeterBinderProvider implements CacheMeterBinderProvider<TwoLevelCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(TwoLevelCache cache, Iterable<Tag> tags) {
+        return new TwoLevelCacheMeterBinder(cache, tags);
+    }
+
+    private static final class TwoLevelCacheMeterBinder extends CacheMeterBinder<TwoLevelCache> {
+
+        TwoLevelCacheMeterBinder(TwoLevelCache cache, Iterable<Tag> tags) {
+            super(cache, cache.getName(), tags);
+        }
+
+        // Redis does not report per-cache sizes, so the size is that of the local tier
+        @Override
+        protected Long size() {
+            TwoLevelCache cache = getCache();
+            return cache != null ? cache.localSize() : null;
+        }
+
+        @Override
+        protected long hitCount() {
+            TwoLevelCache cache = getCache();
+            return cache != null ? cache.localHitCount() + cache.remoteHitCount() : 0;
+        }
+
+        @Override
+        protected Long missCount() {
+            TwoLevelCache cache = getCache();
+            return cache != null ? cache.remoteMissCount() : null;
+        }
+
+        @Override
+        protected Long evictionCount() {
+            TwoLevelCache cache = getCache();
+            return cache != null ? cache.evictionCount() : null;
+        }
+
+        @Override
+        protected long putCount() {
+            TwoLevelCache cache = getCache();
+            return cache != null ? cache.putCount() : 0;
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+            TwoLevelCache cache = getCache();
+            FunctionCounter.builder("cache.tier.hits", cache, TwoLevelCache::localHitCount)
+                    .tags(getTagsWithCacheName()).tag("tier", "local")
+                    .description("Hits served by the in-process cache")
+                    .register(registry);
+            FunctionCounter.builder("cache.tier.hits", cache, TwoLevelCache::remoteHitCount)
+                    .tags(getTagsWithCacheName()).tag("tier", "remote")
+                    .description("Hits served by Redis after a local miss")
+                    .register(registry);
+        }
+    }
+}
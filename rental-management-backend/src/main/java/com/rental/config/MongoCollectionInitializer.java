@@ -0,0 +1,147 @@
+package com.rental.config;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.result.UpdateResult;
+import com.rental.model.Property;
+import com.rental.model.Transaction;
+import com.rental.util.SearchTokenizer;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Brings the collections in line with the current mapping at startup.
+ */
+@Component
+public class MongoCollectionInitializer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoCollectionInitializer.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private QueryPlanVerifier queryPlanVerifier;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migratePrices();
+        initializeVersions(Property.class);
+        initializeVersions(Transaction.class);
+        backfillSearchTokens();
+        ensureIndexes();
+        queryPlanVerifier.verify();
+    }
+
+    // Prices used to be stored as strings, which breaks range queries on the server
+    private void migratePrices() {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Property.class));
+        UpdateResult result = collection.updateMany(
+                Filters.type("price", BsonType.STRING),
+                List.of(new Document("$set", new Document("price", new Document("$toDecimal", "$price")))));
+        if (result.getModifiedCount() > 0) {
+            log.info("Converted {} property prices to Decimal128", result.getModifiedCount());
+        }
+    }
+
+    // Documents written before optimistic locking have no version and would be treated as new on save
+    private void initializeVersions(Class<?> entityClass) {
+        UpdateResult result = mongoTemplate.getCollection(mongoTemplate.getCollectionName(entityClass)).updateMany(
+                Filters.exists("version", false),
+                new Document("$set", new Document("version", 0L)));
+        if (result.getModifiedCount() > 0) {
+            log.info("Initialized version on {} {} documents", result.getModifiedCount(), entityClass.getSimpleName());
+        }
+    }
+
+    // Listings saved before keyword search have no tokens yet
+    private void backfillSearchTokens() {
+        Query query = new Query(Criteria.where("searchTokens").exists(false)).cursorBatchSize(BACKFILL_BATCH_SIZE);
+        query.fields().include("title", "city", "amenities", "description");
+
+        long updated = 0;
+        List<Pair<Query, UpdateDefinition>> updates = new ArrayList<>(BACKFILL_BATCH_SIZE);
+        try (Stream<Property> properties = mongoTemplate.stream(query, Property.class)) {
+            Iterator<Property> iterator = properties.iterator();
+            while (iterator.hasNext()) {
+                Property property = iterator.next();
+                updates.add(Pair.of(
+                        Query.query(Criteria.where("id").is(property.getId())),
+                        Update.update("searchTokens", SearchTokenizer.indexTokens(property))));
+                if (updates.size() == BACKFILL_BATCH_SIZE || !iterator.hasNext()) {
+                    mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Property.class).updateOne(updates).execute();
+                    updated += updates.size();
+                    updates.clear();
+                }
+            }
+        }
+        if (updated > 0) {
+            log.info("Derived search tokens for {} properties", updated);
+        }
+    }
+
+    private void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Property.class);
+        PartialIndexFilter available = PartialIndexFilter.of(
+                Criteria.where("status").is(Property.PropertyStatus.AVAILABLE.name()));
+
+        List<IndexDefinition> indexes = List.of(
+                new Index().on("status", Sort.Direction.ASC).on("city", Sort.Direction.ASC)
+                        .on("price", Sort.Direction.ASC).named("status_city_price"),
+                new Index().on("status", Sort.Direction.ASC).on("type", Sort.Direction.ASC)
+                        .on("price", Sort.Direction.ASC).named("status_type_price"),
+                new CompoundIndexDefinition(new Document("location", "2dsphere").append("status", 1))
+                        .named("location_2dsphere_status"),
+                new Index().on("city", Sort.Direction.ASC).on("price", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                        .named("available_city_price").partial(available),
+                new Index().on("type", Sort.Direction.ASC).on("price", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                        .named("available_type_price").partial(available),
+                new Index().on("price", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                        .named("available_price").partial(available),
+                new Index().on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                        .named("available_created").partial(available),
+                new Index().on("city", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                        .named("available_city_created").partial(available),
+                new Index().on("area", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                        .named("available_area").partial(available),
+                new Index().on("status", Sort.Direction.ASC).on("_id", Sort.Direction.DESC)
+                        .named("status_id_desc"),
+                new Index().on("city", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                        .named("city_id"),
+                new Index().on("status", Sort.Direction.ASC).on("searchTokens", Sort.Direction.ASC)
+                        .named("status_search_tokens"),
+                new Index().on("status", Sort.Direction.ASC).on("amenities", Sort.Direction.ASC)
+                        .named("status_amenities")
+        );
+
+        for (IndexDefinition index : indexes) {
+            indexOps.ensureIndex(index);
+        }
+    }
+}
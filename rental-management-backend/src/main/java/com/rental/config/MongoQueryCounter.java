@@ -0,0 +1,40 @@
+package com.rental.config;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the MongoDB commands issued on the current thread while a count is active. The sync
+ * driver runs command listeners on the calling thread, so the count covers one request.
+ */
+@Component
+public class MongoQueryCounter implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    private final ThreadLocal<int[]> counter = new ThreadLocal<>();
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        builder.addCommandListener(this);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        int[] count = counter.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+
+    public void start() {
+        counter.set(new int[1]);
+    }
+
+    public int stop() {
+        int[] count = counter.get();
+        counter.remove();
+        return count != null ? count[0] : 0;
+    }
+}
@@ -0,0 +1,191 @@
+package com.rental.config;
+
+import com.rental.model.Property;
+import com.rental.model.Transaction;
+import com.rental.model.User;
+import com.rental.repository.PropertyQueryBuilder;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs {@code explain()} for every query shape the repositories issue and reports the ones
+ * MongoDB would answer with a collection scan or, for sorted shapes, a blocking in-memory sort.
+ */
+@Component
+public class QueryPlanVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanVerifier.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.mongo.query-plan-check:warn}")
+    private String mode; // warn, fail or off
+
+    public void verify() {
+        if ("off".equalsIgnoreCase(mode)) {
+            return;
+        }
+
+        List<String> collectionScans = new ArrayList<>();
+        List<String> inMemorySorts = new ArrayList<>();
+        queryShapes().forEach((name, shape) -> {
+            Object winningPlan = winningPlan(shape.entityClass(), shape.query());
+            if (containsStage(winningPlan, "COLLSCAN")) {
+                collectionScans.add(name);
+            }
+            if (containsStage(winningPlan, "SORT")) {
+                inMemorySorts.add(name);
+            }
+        });
+
+        if (collectionScans.isEmpty() && inMemorySorts.isEmpty()) {
+            log.info("Verified query plans, no collection scans or in-memory sorts found");
+            return;
+        }
+
+        List<String> problems = new ArrayList<>();
+        if (!collectionScans.isEmpty()) {
+            problems.add("Queries planned as COLLSCAN: " + collectionScans);
+        }
+        if (!inMemorySorts.isEmpty()) {
+            problems.add("Queries planned with an in-memory SORT: " + inMemorySorts);
+        }
+        String message = String.join("; ", problems);
+        if ("fail".equalsIgnoreCase(mode)) {
+            throw new IllegalStateException(message);
+        }
+        log.warn(message);
+    }
+
+    private Map<String, QueryShape> queryShapes() {
+        String available = Property.PropertyStatus.AVAILABLE.name();
+        BigDecimal minPrice = BigDecimal.valueOf(500);
+        BigDecimal maxPrice = BigDecimal.valueOf(2000);
+
+        Map<String, QueryShape> shapes = new LinkedHashMap<>();
+        shapes.put("PropertyRepository.findByStatus",
+                new QueryShape(Property.class, Query.query(Criteria.where("status").is(available))));
+        shapes.put("PropertyRepository.findByCityAndStatus",
+                new QueryShape(Property.class, Query.query(Criteria.where("city").is("city").and("status").is(available))));
+        shapes.put("PropertyRepository.findByTypeAndStatus",
+                new QueryShape(Property.class, Query.query(Criteria.where("type").is("HOUSE").and("status").is(available))));
+        shapes.put("PropertyRepository.findByPriceBetweenAndStatus",
+                new QueryShape(Property.class, Query.query(Criteria.where("price").gt(minPrice).lt(maxPrice).and("status").is(available))));
+        shapes.put("PropertyRepository.findByOwnerId",
+                new QueryShape(Property.class, Query.query(Criteria.where("ownerId").is("owner"))));
+        shapes.put("PropertyRepository.search(geo)",
+                new QueryShape(Property.class, new PropertyQueryBuilder().near(0, 0, 5000)
+                        .type(Property.PropertyType.HOUSE).build(PageRequest.of(0, 20))));
+        shapes.put("PropertyRepository.search(city, type, price)",
+                new QueryShape(Property.class, new PropertyQueryBuilder().city("city").type(Property.PropertyType.HOUSE)
+                        .priceBetween(minPrice, maxPrice).build(PageRequest.of(0, 20))));
+        shapes.put("PropertyRepository.search(price)",
+                new QueryShape(Property.class, new PropertyQueryBuilder().priceBetween(minPrice, null)
+                        .build(PageRequest.of(0, 20))));
+        shapes.put("PropertyRepository.search(sort=newest)",
+                new QueryShape(Property.class, new PropertyQueryBuilder().sort(PropertyQueryBuilder.SortOrder.NEWEST)
+                        .build(PageRequest.of(0, 20))));
+        shapes.put("PropertyRepository.search(price, sort=price_asc)",
+                new QueryShape(Property.class, new PropertyQueryBuilder().priceBetween(minPrice, maxPrice)
+                        .sort(PropertyQueryBuilder.SortOrder.PRICE_ASC).build(PageRequest.of(0, 20))));
+        shapes.put("PropertyRepository.search(sort=price_desc)",
+                new QueryShape(Property.class, new PropertyQueryBuilder().sort(PropertyQueryBuilder.SortOrder.PRICE_DESC)
+                        .build(PageRequest.of(0, 20))));
+        shapes.put("PropertyRepository.search(sort=area_desc)",
+                new QueryShape(Property.class, new PropertyQueryBuilder().sort(PropertyQueryBuilder.SortOrder.AREA_DESC)
+                        .build(PageRequest.of(0, 20))));
+        shapes.put("PropertyRepository.search(city, sort=price_asc)",
+                new QueryShape(Property.class, new PropertyQueryBuilder().city("city")
+                        .sort(PropertyQueryBuilder.SortOrder.PRICE_ASC).build(PageRequest.of(0, 20))));
+        shapes.put("PropertyRepository.search(city, sort=newest)",
+                new QueryShape(Property.class, new PropertyQueryBuilder().city("city")
+                        .sort(PropertyQueryBuilder.SortOrder.NEWEST).build(PageRequest.of(0, 20))));
+        shapes.put("PropertyRepository.search(type, sort=price_desc)",
+                new QueryShape(Property.class, new PropertyQueryBuilder().type(Property.PropertyType.HOUSE)
+                        .sort(PropertyQueryBuilder.SortOrder.PRICE_DESC).build(PageRequest.of(0, 20))));
+        shapes.put("PropertyRepository.search(status)",
+                new QueryShape(Property.class, new PropertyQueryBuilder().status(Property.PropertyStatus.RENTED)
+                        .build(PageRequest.of(0, 20))));
+        shapes.put("PropertyRepository.search(keywords)",
+                new QueryShape(Property.class, new PropertyQueryBuilder().keywords("sunny loft")
+                        .build(PageRequest.of(0, 20))));
+        shapes.put("PropertyRepository.search(amenities)",
+                new QueryShape(Property.class, new PropertyQueryBuilder().amenities(List.of("Parking"))
+                        .build(PageRequest.of(0, 20))));
+        shapes.put("TransactionRepository.findByTenantId",
+                new QueryShape(Transaction.class, Query.query(Criteria.where("tenantId").is("tenant"))));
+        shapes.put("TransactionRepository.findByOwnerId",
+                new QueryShape(Transaction.class, Query.query(Criteria.where("ownerId").is("owner"))));
+        shapes.put("TransactionRepository.findByPropertyId",
+                new QueryShape(Transaction.class, Query.query(Criteria.where("propertyId").is("property"))));
+        shapes.put("TransactionRepository.hasOverlappingBooking",
+                new QueryShape(Transaction.class, Query.query(Criteria.where("propertyId").is("property")
+                        .and("status").in(Transaction.TransactionStatus.APPROVED.name(), Transaction.TransactionStatus.COMPLETED.name())
+                        .and("startDate").lt(new Date()).and("endDate").gt(new Date()))));
+        // The outer stage of the availability aggregation; its $lookup side is hasOverlappingBooking
+        shapes.put("PropertyRepository.findAvailableInCity",
+                new QueryShape(Property.class, Query.query(Criteria.where("city").is("city")
+                        .and("status").ne(Property.PropertyStatus.MAINTENANCE.name()))
+                        .with(Sort.by("id")).limit(21)));
+        shapes.put("UserRepository.findByEmail",
+                new QueryShape(User.class, Query.query(Criteria.where("email").is("user@example.com"))));
+        return shapes;
+    }
+
+    private Object winningPlan(Class<?> entityClass, Query query) {
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(entityClass);
+        Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+        Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+
+        Document plan = mongoTemplate.getCollection(mongoTemplate.getCollectionName(entityClass))
+                .find(filter)
+                .sort(sort)
+                .limit(query.getLimit())
+                .explain();
+        Object queryPlanner = plan.get("queryPlanner");
+        return queryPlanner instanceof Document document ? document.get("winningPlan") : null;
+    }
+
+    private boolean containsStage(Object node, String stage) {
+        if (node instanceof Document document) {
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            for (Object value : document.values()) {
+                if (containsStage(value, stage)) {
+                    return true;
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object value : list) {
+                if (containsStage(value, stage)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private record QueryShape(Class<?> entityClass, Query query) {
+    }
+}
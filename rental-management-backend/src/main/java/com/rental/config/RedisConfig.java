@@ -1,12 +1,20 @@
 package com.rental.config;
 
-import org.springframework.cache.CacheManager;
+import com.rental.cache.PropertyListRedisSerializer;
+import com.rental.cache.PropertySummaryPageRedisSerializer;
+import com.rental.cache.PropertyRedisSerializer;
+import com.rental.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -16,19 +24,146 @@ import java.time.Duration;
 @Configuration
 @EnableCaching
 public class RedisConfig {
-    
+
+    public static final String PROPERTY_CACHE = "property";
+    public static final String PROPERTY_SEARCH_CACHE = "propertySearch";
+    public static final String PROPERTY_GEO_CELL_CACHE = "propertyGeoCell";
+    public static final String PROPERTY_FACETS_CACHE = "propertyFacets";
+    public static final String PROPERTY_MISSING_CACHE = "propertyMissing";
+    public static final String PROPERTY_EMPTY_SEARCH_CACHE = "propertyEmptySearch";
+
+    @Value("${app.cache.invalidation-channel:cache-invalidation}")
+    private String invalidationChannel;
+
+    @Value("${app.cache.local.max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${app.cache.local.ttl:60s}")
+    private Duration localTtl;
+
+    @Value("${app.cache.property.ttl:10m}")
+    private Duration propertyTtl;
+
+    @Value("${app.cache.property.local-max-size:10000}")
+    private long propertyLocalMaxSize;
+
+    @Value("${app.cache.property.local-ttl:60s}")
+    private Duration propertyLocalTtl;
+
+    @Value("${app.cache.property-search.ttl:2m}")
+    private Duration propertySearchTtl;
+
+    @Value("${app.cache.property-search.local-max-size:2000}")
+    private long propertySearchLocalMaxSize;
+
+    @Value("${app.cache.property-search.local-ttl:30s}")
+    private Duration propertySearchLocalTtl;
+
+    @Value("${app.cache.property-geo-cell.ttl:5m}")
+    private Duration propertyGeoCellTtl;
+
+    @Value("${app.cache.property-geo-cell.local-max-size:5000}")
+    private long propertyGeoCellLocalMaxSize;
+
+    @Value("${app.cache.property-geo-cell.local-ttl:60s}")
+    private Duration propertyGeoCellLocalTtl;
+
+    @Value("${app.cache.property-facets.ttl:2m}")
+    private Duration propertyFacetsTtl;
+
+    @Value("${app.cache.property-facets.local-max-size:1000}")
+    private long propertyFacetsLocalMaxSize;
+
+    @Value("${app.cache.property-facets.local-ttl:30s}")
+    private Duration propertyFacetsLocalTtl;
+
+    @Value("${app.cache.property-missing.ttl:1m}")
+    private Duration propertyMissingTtl;
+
+    @Value("${app.cache.property-missing.local-max-size:10000}")
+    private long propertyMissingLocalMaxSize;
+
+    @Value("${app.cache.property-missing.local-ttl:30s}")
+    private Duration propertyMissingLocalTtl;
+
+    @Value("${app.cache.property-empty-search.ttl:1m}")
+    private Duration propertyEmptySearchTtl;
+
+    @Value("${app.cache.property-empty-search.local-max-size:2000}")
+    private long propertyEmptySearchLocalMaxSize;
+
+    @Value("${app.cache.property-empty-search.local-ttl:30s}")
+    private Duration propertyEmptySearchLocalTtl;
+
+    @Value("${app.cache.early-refresh.beta:1.0}")
+    private double earlyRefreshBeta;
+
+    @Value("${app.cache.load-lease.enabled:false}")
+    private boolean loadLeaseEnabled;
+
+    @Value("${app.cache.load-lease.ttl:5s}")
+    private Duration loadLeaseTtl;
+
+    @Value("${app.cache.load-lease.poll-interval:25ms}")
+    private Duration loadLeasePollInterval;
+
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             StringRedisTemplate redisTemplate,
+                                             MeterRegistry meterRegistry) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10))
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()))
                 .disableCachingNullValues();
-        
-        return RedisCacheManager.builder(connectionFactory)
+
+        RedisCacheConfiguration propertyConfig = config
+                .entryTtl(propertyTtl)
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new PropertyRedisSerializer()));
+
+        RedisCacheConfiguration propertySearchConfig = config
+                .entryTtl(propertySearchTtl)
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new PropertySummaryPageRedisSerializer()));
+
+        RedisCacheConfiguration propertyGeoCellConfig = config
+                .entryTtl(propertyGeoCellTtl)
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new PropertyListRedisSerializer()));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
+                .withCacheConfiguration(PROPERTY_CACHE, propertyConfig)
+                .withCacheConfiguration(PROPERTY_SEARCH_CACHE, propertySearchConfig)
+                .withCacheConfiguration(PROPERTY_GEO_CELL_CACHE, propertyGeoCellConfig)
+                .withCacheConfiguration(PROPERTY_FACETS_CACHE, config.entryTtl(propertyFacetsTtl))
+                .withCacheConfiguration(PROPERTY_MISSING_CACHE, config.entryTtl(propertyMissingTtl))
+                .withCacheConfiguration(PROPERTY_EMPTY_SEARCH_CACHE, config.entryTtl(propertyEmptySearchTtl))
                 .transactionAware()
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(
+                redisCacheManager, redisTemplate, invalidationChannel, localMaxSize, localTtl);
+        if (loadLeaseEnabled) {
+            cacheManager.withLoadLease(loadLeaseTtl, loadLeasePollInterval);
+        }
+        return cacheManager
+                .withMeterRegistry(meterRegistry)
+                .withEarlyRefresh(PROPERTY_CACHE, propertyTtl, earlyRefreshBeta)
+                .withEarlyRefresh(PROPERTY_SEARCH_CACHE, propertySearchTtl, earlyRefreshBeta)
+                .withLocalCache(PROPERTY_CACHE, propertyLocalMaxSize, propertyLocalTtl)
+                .withLocalCache(PROPERTY_SEARCH_CACHE, propertySearchLocalMaxSize, propertySearchLocalTtl)
+                .withLocalCache(PROPERTY_GEO_CELL_CACHE, propertyGeoCellLocalMaxSize, propertyGeoCellLocalTtl)
+                .withLocalCache(PROPERTY_FACETS_CACHE, propertyFacetsLocalMaxSize, propertyFacetsLocalTtl)
+                .withLocalCache(PROPERTY_MISSING_CACHE, propertyMissingLocalMaxSize, propertyMissingLocalTtl)
+                .withLocalCache(PROPERTY_EMPTY_SEARCH_CACHE, propertyEmptySearchLocalMaxSize, propertyEmptySearchLocalTtl);
     }
-}
 
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(invalidationChannel));
+        return container;
+    }
+}
@@ -0,0 +1,24 @@
+package com.rental.controller;
+
+import com.rental.cache.TwoLevelCacheManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "http://localhost:3000")
+@PreAuthorize("hasRole('ADMIN')")
+public class CacheController {
+
+    @Autowired
+    private TwoLevelCacheManager cacheManager;
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStatistics() {
+        return ResponseEntity.ok(cacheManager.getStatistics());
+    }
+}
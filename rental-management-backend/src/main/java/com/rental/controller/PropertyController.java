@@ -1,19 +1,34 @@
 package com.rental.controller;
 
+import com.rental.dto.CursorPage;
+import com.rental.dto.ExportFilter;
+import com.rental.dto.FacetedSearchResult;
+import com.rental.dto.ImportResult;
 import com.rental.dto.PropertyRequest;
 import com.rental.dto.PropertySearchRequest;
+import com.rental.dto.PropertySummary;
 import com.rental.model.Property;
+import com.rental.service.AvailabilityService;
+import com.rental.service.ExportService;
+import com.rental.service.PropertyImportService;
 import com.rental.service.PropertyService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -24,6 +39,15 @@ public class PropertyController {
     @Autowired
     private PropertyService propertyService;
     
+    @Autowired
+    private AvailabilityService availabilityService;
+    
+    @Autowired
+    private PropertyImportService propertyImportService;
+    
+    @Autowired
+    private ExportService exportService;
+    
     @GetMapping
     public ResponseEntity<Map<String, Object>> getAllProperties(
             @RequestParam(required = false) Double latitude,
@@ -33,6 +57,73 @@ public class PropertyController {
             @RequestParam(required = false) String type,
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer minBedrooms,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) List<String> amenities,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean includeTotal,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        PropertySearchRequest searchRequest = new PropertySearchRequest();
+        searchRequest.setLatitude(latitude);
+        searchRequest.setLongitude(longitude);
+        searchRequest.setRadius(radius);
+        searchRequest.setCity(city);
+        searchRequest.setType(type);
+        searchRequest.setMinPrice(minPrice);
+        searchRequest.setMaxPrice(maxPrice);
+        searchRequest.setMinBedrooms(minBedrooms);
+        searchRequest.setQ(q);
+        searchRequest.setAmenities(amenities);
+        searchRequest.setStatus(status);
+        searchRequest.setSort(sort);
+        searchRequest.setIncludeTotal(includeTotal);
+        searchRequest.setPage(page);
+        searchRequest.setSize(size);
+        
+        // Cursor mode: an empty cursor requests the first page
+        if (cursor != null) {
+            CursorPage<PropertySummary> properties = propertyService.searchPropertiesAfter(searchRequest, cursor);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("properties", properties.getContent());
+            response.put("nextCursor", properties.getNextCursor());
+            response.put("hasMore", properties.hasMore());
+            
+            return ResponseEntity.ok(response);
+        }
+        
+        Page<PropertySummary> properties = propertyService.searchProperties(searchRequest);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("properties", properties.getContent());
+        response.put("currentPage", properties.getNumber());
+        response.put("hasMore", properties.hasNext());
+        if (includeTotal) {
+            response.put("totalItems", properties.getTotalElements());
+            response.put("totalPages", properties.getTotalPages());
+        }
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> getPropertiesWithFacets(
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(required = false) Double radius,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer minBedrooms,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) List<String> amenities,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
@@ -44,16 +135,114 @@ public class PropertyController {
         searchRequest.setType(type);
         searchRequest.setMinPrice(minPrice);
         searchRequest.setMaxPrice(maxPrice);
+        searchRequest.setMinBedrooms(minBedrooms);
+        searchRequest.setQ(q);
+        searchRequest.setAmenities(amenities);
+        searchRequest.setStatus(status);
+        searchRequest.setSort(sort);
         searchRequest.setPage(page);
         searchRequest.setSize(size);
         
-        Page<Property> properties = propertyService.searchProperties(searchRequest);
+        FacetedSearchResult result = propertyService.searchWithFacets(searchRequest);
+        Page<PropertySummary> properties = result.getPage();
         
         Map<String, Object> response = new HashMap<>();
         response.put("properties", properties.getContent());
         response.put("currentPage", properties.getNumber());
+        response.put("hasMore", properties.hasNext());
         response.put("totalItems", properties.getTotalElements());
         response.put("totalPages", properties.getTotalPages());
+        response.put("facets", result.getFacets());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/amenities")
+    public ResponseEntity<Map<String, Object>> getAmenityCounts(
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(required = false) Double radius,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer minBedrooms,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) List<String> amenities,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        PropertySearchRequest searchRequest = new PropertySearchRequest();
+        searchRequest.setLatitude(latitude);
+        searchRequest.setLongitude(longitude);
+        searchRequest.setRadius(radius);
+        searchRequest.setCity(city);
+        searchRequest.setType(type);
+        searchRequest.setMinPrice(minPrice);
+        searchRequest.setMaxPrice(maxPrice);
+        searchRequest.setMinBedrooms(minBedrooms);
+        searchRequest.setQ(q);
+        searchRequest.setAmenities(amenities);
+        searchRequest.setStatus(status);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("amenities", propertyService.countAmenities(searchRequest, limit));
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/available")
+    public ResponseEntity<Map<String, Object>> getAvailableProperties(
+            @RequestParam String city,
+            @RequestParam Long startDate,
+            @RequestParam Long endDate,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
+        Pageable pageable = PageRequest.of(page, size);
+        Page<PropertySummary> properties = availabilityService.findAvailableProperties(
+                city, new Date(startDate), new Date(endDate), pageable, includeTotal);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("properties", properties.getContent());
+        response.put("currentPage", properties.getNumber());
+        response.put("hasMore", properties.hasNext());
+        if (includeTotal) {
+            response.put("totalItems", properties.getTotalElements());
+            response.put("totalPages", properties.getTotalPages());
+        }
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<StreamingResponseBody> exportProperties(
+            @RequestParam(required = false) String ownerId,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to) {
+        ExportFilter filter = new ExportFilter();
+        filter.setOwnerId(ownerId);
+        filter.setCity(city);
+        filter.setStatus(status);
+        filter.setFrom(from != null ? new Date(from) : null);
+        filter.setTo(to != null ? new Date(to) : null);
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(exportService.exportProperties(filter));
+    }
+    
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<Map<String, Object>> getAvailability(
+            @PathVariable String id,
+            @RequestParam Long startDate,
+            @RequestParam Long endDate) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("propertyId", id);
+        response.put("available", availabilityService.isAvailable(id, new Date(startDate), new Date(endDate)));
         
         return ResponseEntity.ok(response);
     }
@@ -79,7 +268,7 @@ public class PropertyController {
         searchRequest.setPage(page);
         searchRequest.setSize(size);
         
-        Page<Property> properties = propertyService.searchProperties(searchRequest);
+        Page<PropertySummary> properties = propertyService.searchProperties(searchRequest);
         
         Map<String, Object> response = new HashMap<>();
         response.put("properties", properties.getContent());
@@ -97,6 +286,23 @@ public class PropertyController {
         return ResponseEntity.ok(property);
     }
     
+    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Map<String, Object>> importProperties(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        ImportResult result = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? propertyImportService.importCsv(body)
+                : propertyImportService.importNdjson(body);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("imported", result.getImported());
+        response.put("failed", result.getFailed());
+        response.put("errors", result.getErrors());
+        
+        return ResponseEntity.ok(response);
+    }
+    
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<Property> updateProperty(@PathVariable String id, 
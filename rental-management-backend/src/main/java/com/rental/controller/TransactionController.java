@@ -1,14 +1,19 @@
 package com.rental.controller;
 
+import com.rental.dto.CursorPage;
+import com.rental.dto.ExportFilter;
 import com.rental.model.Transaction;
+import com.rental.service.ExportService;
 import com.rental.service.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Date;
 import java.util.HashMap;
@@ -23,6 +28,9 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
     
+    @Autowired
+    private ExportService exportService;
+    
     @PostMapping
     public ResponseEntity<Transaction> createTransaction(
             @RequestParam String propertyId,
@@ -44,8 +52,13 @@ public class TransactionController {
     
     @GetMapping
     public ResponseEntity<Map<String, Object>> getUserTransactions(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
+        if (cursor != null) {
+            return ResponseEntity.ok(toResponse(transactionService.getUserTransactionsAfter(cursor, size)));
+        }
+        
         Pageable pageable = PageRequest.of(page, size);
         Page<Transaction> transactions = transactionService.getUserTransactions(pageable);
         
@@ -60,8 +73,13 @@ public class TransactionController {
     
     @GetMapping("/owner")
     public ResponseEntity<Map<String, Object>> getOwnerTransactions(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
+        if (cursor != null) {
+            return ResponseEntity.ok(toResponse(transactionService.getOwnerTransactionsAfter(cursor, size)));
+        }
+        
         Pageable pageable = PageRequest.of(page, size);
         Page<Transaction> transactions = transactionService.getOwnerTransactions(pageable);
         
@@ -73,5 +91,27 @@ public class TransactionController {
         
         return ResponseEntity.ok(response);
     }
+    
+    @GetMapping(value = "/owner/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportOwnerTransactions(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to) {
+        ExportFilter filter = new ExportFilter();
+        filter.setStatus(status);
+        filter.setFrom(from != null ? new Date(from) : null);
+        filter.setTo(to != null ? new Date(to) : null);
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(exportService.exportOwnerTransactions(filter));
+    }
+    
+    private Map<String, Object> toResponse(CursorPage<Transaction> transactions) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("transactions", transactions.getContent());
+        response.put("nextCursor", transactions.getNextCursor());
+        response.put("hasMore", transactions.hasMore());
+        return response;
+    }
 }
-
@@ -0,0 +1,36 @@
+package com.rental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor; // null on the last page
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Builds a page from a result fetched with {@code size + 1} rows; the extra row only
+     * signals that another page exists.
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int size, Function<T, String> idExtractor) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        if (fetched.size() <= size) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> content = fetched.subList(0, size);
+        String lastId = idExtractor.apply(content.get(size - 1));
+        return new CursorPage<>(content, new PageCursor(lastId).encode());
+    }
+}
@@ -0,0 +1,14 @@
+package com.rental.dto;
+
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class ExportFilter {
+    private String ownerId;
+    private String city;
+    private String status;
+    private Date from; // createdAt lower bound, inclusive
+    private Date to;   // createdAt upper bound, exclusive
+}
@@ -0,0 +1,14 @@
+package com.rental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedSearchResult {
+    private Page<PropertySummary> page;
+    private SearchFacets facets;
+}
@@ -0,0 +1,33 @@
+package com.rental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination: the {@code _id} of the last item on the
+ * previous page. Every cursor endpoint pages in {@code _id} order, so the id is the whole key.
+ */
+@Data
+@AllArgsConstructor
+public class PageCursor {
+    private String id;
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String id = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (id.isEmpty()) {
+                throw new IllegalArgumentException("Missing id");
+            }
+            return new PageCursor(id);
+        } catch (IllegalArgumentException ex) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
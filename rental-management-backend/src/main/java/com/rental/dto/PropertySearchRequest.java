@@ -2,6 +2,8 @@ package com.rental.dto;
 
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 public class PropertySearchRequest {
     private Double latitude;
@@ -11,7 +13,22 @@ public class PropertySearchRequest {
     private String type;
     private Double minPrice;
     private Double maxPrice;
+    private Integer minBedrooms;
+    private String q; // keywords matched against title, city, amenities and description
+    private List<String> amenities; // all must be offered
+    private String status; // defaults to AVAILABLE
+    private String sort; // newest, price_asc, price_desc, area_asc, area_desc, distance or relevance
     private Integer page = 0;
     private Integer size = 20;
+    private Boolean includeTotal = true;
+
+    /**
+     * Identifies the filters alone, ignoring paging and sort.
+     */
+    public String filterSignature() {
+        return "latitude=" + latitude + ", longitude=" + longitude + ", radius=" + radius
+                + ", city=" + city + ", type=" + type + ", minPrice=" + minPrice + ", maxPrice=" + maxPrice
+                + ", minBedrooms=" + minBedrooms + ", q=" + q + ", amenities=" + amenities + ", status=" + status;
+    }
 }
 
@@ -0,0 +1,50 @@
+package com.rental.dto;
+
+import com.rental.model.Property;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Listing card returned by list and search endpoints; the full document is only served by
+ * {@code GET /api/properties/{id}}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PropertySummary {
+    private String id;
+    private String title;
+    private String address;
+    private String city;
+    private String state;
+    private Property.PropertyType type;
+    private Property.PropertyStatus status;
+    private BigDecimal price;
+    private Integer bedrooms;
+    private Integer bathrooms;
+    private Double area;
+    private Double latitude;
+    private Double longitude;
+    private String thumbnail;
+
+    public static PropertySummary of(Property property) {
+        return new PropertySummary(
+                property.getId(),
+                property.getTitle(),
+                property.getAddress(),
+                property.getCity(),
+                property.getState(),
+                property.getType(),
+                property.getStatus(),
+                property.getPrice(),
+                property.getBedrooms(),
+                property.getBathrooms(),
+                property.getArea(),
+                property.getLocation() != null ? property.getLocation().getY() : null,
+                property.getLocation() != null ? property.getLocation().getX() : null,
+                property.getImages() != null && !property.getImages().isEmpty() ? property.getImages().get(0) : null);
+    }
+}
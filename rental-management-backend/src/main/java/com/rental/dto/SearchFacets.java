@@ -0,0 +1,34 @@
+package com.rental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Match counts per property type, city, bedroom count, price range and amenity for one set of
+ * search filters. Every count is taken over the listings matching all filters.
+ */
+@Data
+@NoArgsConstructor
+public class SearchFacets {
+    private long total;
+    private Map<String, Long> types = new LinkedHashMap<>();
+    private Map<String, Long> cities = new LinkedHashMap<>(); // most common first
+    private Map<Integer, Long> bedrooms = new LinkedHashMap<>();
+    private List<PriceRange> prices = new ArrayList<>();
+    private Map<String, Long> amenities = new LinkedHashMap<>(); // most common first
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceRange {
+        private long min;
+        private Long max; // exclusive; null for the open-ended top range
+        private long count;
+    }
+}
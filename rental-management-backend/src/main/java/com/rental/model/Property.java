@@ -1,14 +1,18 @@
 package com.rental.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
 import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.util.Date;
@@ -34,6 +38,7 @@ public class Property {
     private GeoJsonPoint location; // [longitude, latitude]
     
     private PropertyType type; // APARTMENT, HOUSE, CONDO, TOWNHOUSE
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal price;
     private Integer bedrooms;
     private Integer bathrooms;
@@ -41,6 +46,9 @@ public class Property {
     private List<String> amenities;
     private List<String> images;
     
+    @JsonIgnore
+    private List<String> searchTokens; // derived from title, city, amenities and description on save
+    
     @Indexed
     private String ownerId; // User ID
     
@@ -48,6 +56,9 @@ public class Property {
     private Date createdAt;
     private Date updatedAt;
     
+    @Version
+    private Long version;
+    
     public enum PropertyType {
         APARTMENT, HOUSE, CONDO, TOWNHOUSE
     }
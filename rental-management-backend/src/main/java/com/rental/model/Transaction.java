@@ -4,6 +4,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -11,6 +14,11 @@ import java.math.BigDecimal;
 import java.util.Date;
 
 @Document(collection = "transactions")
+@CompoundIndexes({
+    @CompoundIndex(name = "tenant_id_desc", def = "{'tenantId': 1, '_id': -1}"),
+    @CompoundIndex(name = "owner_id_desc", def = "{'ownerId': 1, '_id': -1}"),
+    @CompoundIndex(name = "property_period", def = "{'propertyId': 1, 'startDate': 1, 'endDate': 1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,6 +42,9 @@ public class Transaction {
     private Date createdAt;
     private Date updatedAt;
     
+    @Version
+    private Long version;
+    
     public enum TransactionStatus {
         PENDING, APPROVED, REJECTED, COMPLETED, CANCELLED
     }
@@ -0,0 +1,545 @@
+package com.rental.repository;
+
+import com.rental.dto.PropertySearchRequest;
+import com.rental.model.Property;
+import com.rental.util.GeoHash;
+import com.rental.util.SearchTokenizer;
+import org.bson.Document;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Circle;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds a single server-side query for a property search. All filters are combined in one
+ * criteria document so MongoDB can pick a compound index instead of filtering in memory.
+ */
+public class PropertyQueryBuilder {
+
+    public static final double DEFAULT_RADIUS = 5000; // meters
+
+    private static final double RELEVANCE_DISTANCE_WEIGHT = 0.4;
+    private static final double RELEVANCE_PRICE_WEIGHT = 0.3;
+    private static final double RELEVANCE_AREA_WEIGHT = 0.15;
+    private static final double RELEVANCE_RECENCY_WEIGHT = 0.15;
+    private static final double RELEVANCE_PRICE_REFERENCE = 2000;
+    private static final double RELEVANCE_AREA_REFERENCE = 100;
+    private static final double RELEVANCE_RECENCY_REFERENCE_MS = 30d * 24 * 60 * 60 * 1000;
+
+    // Lower bounds of the price facet ranges; the last one is open-ended
+    public static final long[] PRICE_FACET_BOUNDARIES = {0, 500, 1000, 1500, 2000, 3000, 5000};
+
+    // Fields needed to filter and render a listing card; descriptions, amenities and all but the
+    // first image stay on the server
+    private static final String[] SUMMARY_FIELDS = {
+            "title", "address", "city", "state", "location", "type", "price",
+            "bedrooms", "bathrooms", "area", "status"};
+
+    private Property.PropertyStatus status = Property.PropertyStatus.AVAILABLE;
+    private String city;
+    private Property.PropertyType type;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer minBedrooms;
+    private List<String> keywords = List.of();
+    private List<String> amenities = List.of();
+    private Double latitude;
+    private Double longitude;
+    private double radius = DEFAULT_RADIUS;
+    private SortOrder sortOrder;
+
+    public enum SortOrder {
+        NEWEST, PRICE_ASC, PRICE_DESC, AREA_ASC, AREA_DESC, DISTANCE, RELEVANCE;
+
+        public static SortOrder parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new RuntimeException("Invalid sort: " + value);
+            }
+        }
+    }
+
+    public static PropertyQueryBuilder from(PropertySearchRequest request) {
+        PropertyQueryBuilder builder = new PropertyQueryBuilder();
+        if (request.getStatus() != null && !request.getStatus().isEmpty()) {
+            builder.status(parse(Property.PropertyStatus.class, "status", request.getStatus()));
+        }
+        if (request.getCity() != null && !request.getCity().isEmpty()) {
+            builder.city(request.getCity());
+        }
+        if (request.getType() != null && !request.getType().isEmpty()) {
+            builder.type(parse(Property.PropertyType.class, "type", request.getType()));
+        }
+        builder.priceBetween(
+                request.getMinPrice() != null ? BigDecimal.valueOf(request.getMinPrice()) : null,
+                request.getMaxPrice() != null ? BigDecimal.valueOf(request.getMaxPrice()) : null);
+        builder.minBedrooms(request.getMinBedrooms());
+        builder.keywords(request.getQ());
+        builder.amenities(request.getAmenities());
+        if (request.getLatitude() != null && request.getLongitude() != null) {
+            builder.near(request.getLatitude(), request.getLongitude(),
+                    request.getRadius() != null ? request.getRadius() : DEFAULT_RADIUS);
+        }
+        if (request.getSort() != null && !request.getSort().isEmpty()) {
+            builder.sort(SortOrder.parse(request.getSort()));
+            if (builder.sortOrder == SortOrder.DISTANCE && !builder.isGeo()) {
+                throw new RuntimeException("Sorting by distance requires latitude and longitude");
+            }
+        }
+        return builder;
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String parameter, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new RuntimeException("Invalid " + parameter + ": " + value);
+        }
+    }
+
+    public PropertyQueryBuilder status(Property.PropertyStatus status) {
+        this.status = status;
+        return this;
+    }
+
+    public PropertyQueryBuilder city(String city) {
+        this.city = city;
+        return this;
+    }
+
+    public PropertyQueryBuilder type(Property.PropertyType type) {
+        this.type = type;
+        return this;
+    }
+
+    public PropertyQueryBuilder priceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        return this;
+    }
+
+    public PropertyQueryBuilder minBedrooms(Integer minBedrooms) {
+        this.minBedrooms = minBedrooms;
+        return this;
+    }
+
+    /**
+     * Matches listings containing every word of {@code text}, the last one typically being a prefix
+     * still being typed.
+     */
+    public PropertyQueryBuilder keywords(String text) {
+        this.keywords = SearchTokenizer.queryTokens(text);
+        return this;
+    }
+
+    /**
+     * Matches listings offering all of the given amenities, compared exactly.
+     */
+    public PropertyQueryBuilder amenities(List<String> amenities) {
+        this.amenities = amenities != null
+                ? amenities.stream().filter(amenity -> amenity != null && !amenity.isBlank()).map(String::trim).distinct().toList()
+                : List.of();
+        return this;
+    }
+
+    public PropertyQueryBuilder sort(SortOrder sortOrder) {
+        this.sortOrder = sortOrder;
+        return this;
+    }
+
+    public PropertyQueryBuilder near(double latitude, double longitude, double radius) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.radius = radius;
+        return this;
+    }
+
+    public boolean isGeo() {
+        return latitude != null && longitude != null;
+    }
+
+    /**
+     * Geo searches are ordered by distance unless another sort is requested.
+     */
+    public boolean isDistanceOrdered() {
+        return isGeo() && (sortOrder == null || sortOrder == SortOrder.DISTANCE);
+    }
+
+    public boolean isRelevanceOrdered() {
+        return sortOrder == SortOrder.RELEVANCE;
+    }
+
+    /**
+     * Keyword and amenity filters need fields that summaries and in-memory indexes do not hold.
+     */
+    public boolean hasTextFilters() {
+        return !keywords.isEmpty() || !amenities.isEmpty();
+    }
+
+    public Property.PropertyStatus getStatus() {
+        return status;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public Property.PropertyType getType() {
+        return type;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public Integer getMinBedrooms() {
+        return minBedrooms;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+
+    /**
+     * Meters from the search center to the property, or {@code null} when either has no location.
+     */
+    public Double distanceTo(Property property) {
+        if (!isGeo() || property.getLocation() == null) {
+            return null;
+        }
+        return GeoHash.distanceMeters(latitude, longitude, property.getLocation().getY(), property.getLocation().getX());
+    }
+
+    /**
+     * In-memory equivalent of the query criteria, for candidates that were loaded by a broader query.
+     * Keyword and amenity filters are not evaluated; see {@link #hasTextFilters()}.
+     */
+    public boolean matches(Property property) {
+        if (status != null && status != property.getStatus()) {
+            return false;
+        }
+        if (city != null && !city.equals(property.getCity())) {
+            return false;
+        }
+        if (type != null && type != property.getType()) {
+            return false;
+        }
+        BigDecimal price = property.getPrice();
+        if ((minPrice != null || maxPrice != null) && price == null) {
+            return false;
+        }
+        if (minPrice != null && price.compareTo(minPrice) < 0) {
+            return false;
+        }
+        if (maxPrice != null && price.compareTo(maxPrice) > 0) {
+            return false;
+        }
+        if (minBedrooms != null && (property.getBedrooms() == null || property.getBedrooms() < minBedrooms)) {
+            return false;
+        }
+        if (isGeo()) {
+            Double distance = distanceTo(property);
+            return distance != null && distance <= radius;
+        }
+        return true;
+    }
+
+    /**
+     * Restricts the query to the fields of a {@link com.rental.dto.PropertySummary}.
+     */
+    public static Query summaryProjection(Query query) {
+        query.fields().include(SUMMARY_FIELDS).slice("images", 1);
+        return query;
+    }
+
+    /**
+     * Query returning one page of summaries; geo searches are ordered by distance via {@code $near}.
+     */
+    public Query build(Pageable pageable) {
+        Criteria criteria = filters();
+        if (isDistanceOrdered()) {
+            criteria.and("location").near(new GeoJsonPoint(longitude, latitude)).maxDistance(radius);
+        } else if (isGeo()) {
+            criteria.and("location").withinSphere(circle());
+        }
+        Query query = new Query(criteria).with(pageable);
+        Sort sort = sort();
+        if (sort.isSorted()) {
+            query.with(sort);
+        }
+        return summaryProjection(query);
+    }
+
+    /**
+     * The non-geo filters alone, for aggregations that apply the geo condition in {@code $geoNear}.
+     */
+    public Query buildFilter() {
+        return new Query(filters());
+    }
+
+    /**
+     * Aggregation ranking matches by a relevance score that blends closeness (geo searches only),
+     * low price, large area and recency, each scaled to [0, 1]. {@code filter} is the mapped
+     * {@link #buildFilter()} document.
+     */
+    public List<Document> buildRelevancePipeline(Document filter, long skip, int limit) {
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(matchStage(filter));
+        pipeline.add(relevanceStage());
+        pipeline.add(new Document("$sort", new Document("relevance", -1).append("_id", 1)));
+        pipeline.add(new Document("$skip", skip));
+        pipeline.add(new Document("$limit", limit));
+        pipeline.add(summaryStage());
+        return pipeline;
+    }
+
+    /**
+     * Aggregation returning one page of summaries in the requested order together with the total
+     * and every facet count, in a single document with one field per {@code $facet} branch.
+     * {@code filter} is the mapped {@link #buildFilter()} document; {@code maxValues} caps the city
+     * and amenity facets.
+     */
+    public List<Document> buildFacetPipeline(Document filter, long skip, int limit, int maxValues) {
+        List<Document> results = new ArrayList<>();
+        if (isRelevanceOrdered()) {
+            results.add(relevanceStage());
+            results.add(new Document("$sort", new Document("relevance", -1).append("_id", 1)));
+        } else if (!isDistanceOrdered() && sort().isSorted()) {
+            Document sortDocument = new Document();
+            // Sort keys are entity properties; only the id is stored under another name
+            sort().forEach(order -> sortDocument.append("id".equals(order.getProperty()) ? "_id" : order.getProperty(),
+                    order.isAscending() ? 1 : -1));
+            results.add(new Document("$sort", sortDocument));
+        }
+        results.add(new Document("$skip", skip));
+        results.add(new Document("$limit", limit));
+        results.add(summaryStage());
+
+        Document facets = new Document("results", results)
+                .append("total", List.of(new Document("$count", "count")))
+                .append("types", countBy("$type", null))
+                .append("cities", countBy("$city", maxValues))
+                .append("bedrooms", List.of(
+                        new Document("$group", new Document("_id", "$bedrooms").append("count", new Document("$sum", 1))),
+                        new Document("$sort", new Document("_id", 1))))
+                .append("prices", List.of(
+                        new Document("$match", new Document("price", new Document("$gte", PRICE_FACET_BOUNDARIES[0]))),
+                        new Document("$bucket", new Document("groupBy", "$price")
+                                .append("boundaries", Arrays.stream(PRICE_FACET_BOUNDARIES).boxed().toList())
+                                .append("default", PRICE_FACET_BOUNDARIES[PRICE_FACET_BOUNDARIES.length - 1])
+                                .append("output", new Document("count", new Document("$sum", 1))))))
+                .append("amenities", amenityCounts(maxValues));
+        return List.of(matchStage(filter), new Document("$facet", facets));
+    }
+
+    // $geoNear both applies the radius and orders by distance, so it stands in for $match on geo searches
+    private Document matchStage(Document filter) {
+        if (!isGeo()) {
+            return new Document("$match", filter);
+        }
+        return new Document("$geoNear", new Document("near", new Document("type", "Point")
+                .append("coordinates", List.of(longitude, latitude)))
+                .append("distanceField", "distance")
+                .append("maxDistance", radius)
+                .append("spherical", true)
+                .append("query", filter));
+    }
+
+    private Document relevanceStage() {
+        List<Object> terms = new ArrayList<>();
+        if (isGeo()) {
+            terms.add(weighted(RELEVANCE_DISTANCE_WEIGHT,
+                    new Document("$subtract", List.of(1, new Document("$divide", List.of("$distance", radius))))));
+        }
+
+        Document price = new Document("$toDouble", new Document("$ifNull", List.of("$price", 0)));
+        terms.add(weighted(RELEVANCE_PRICE_WEIGHT, decay(price, RELEVANCE_PRICE_REFERENCE)));
+        Document area = new Document("$ifNull", List.of("$area", 0));
+        terms.add(weighted(RELEVANCE_AREA_WEIGHT,
+                new Document("$divide", List.of(area, new Document("$add", List.of(area, RELEVANCE_AREA_REFERENCE))))));
+        Document age = new Document("$subtract", List.of("$$NOW", new Document("$ifNull", List.of("$createdAt", new Date(0)))));
+        terms.add(weighted(RELEVANCE_RECENCY_WEIGHT, decay(age, RELEVANCE_RECENCY_REFERENCE_MS)));
+        return new Document("$addFields", new Document("relevance", new Document("$add", terms)));
+    }
+
+    /**
+     * Aggregation returning one page of summaries, in id order, of the matches without a booking
+     * in {@code bookingCollection} matching {@code overlapping}. The anti-join runs in MongoDB as a
+     * {@code $lookup} on the {@code propertyId} index that stops at the first overlapping booking.
+     * With {@code includeTotal} the single result document holds {@code results} and {@code total}
+     * as in {@link #buildFacetPipeline}; otherwise the summaries are returned directly. Both filters
+     * are mapped documents.
+     */
+    public static List<Document> buildAvailabilityPipeline(Document filter, String bookingCollection, Document overlapping,
+                                                           long skip, int limit, boolean includeTotal) {
+        Document bookingMatch = new Document(overlapping)
+                .append("$expr", new Document("$eq", List.of("$propertyId", "$$propertyId")));
+        Document lookup = new Document("from", bookingCollection)
+                .append("let", new Document("propertyId", new Document("$toString", "$_id")))
+                .append("pipeline", List.of(
+                        new Document("$match", bookingMatch),
+                        new Document("$limit", 1),
+                        new Document("$project", new Document("_id", 1))))
+                .append("as", "overlapping");
+
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$match", filter));
+        pipeline.add(new Document("$sort", new Document("_id", 1)));
+        pipeline.add(new Document("$lookup", lookup));
+        pipeline.add(new Document("$match", new Document("overlapping", new Document("$size", 0))));
+        List<Document> page = List.of(new Document("$skip", skip), new Document("$limit", limit), summaryStage());
+        if (includeTotal) {
+            pipeline.add(new Document("$facet", new Document("results", page)
+                    .append("total", List.of(new Document("$count", "count")))));
+        } else {
+            pipeline.addAll(page);
+        }
+        return pipeline;
+    }
+
+    private static Document summaryStage() {
+        Document projection = new Document();
+        for (String field : SUMMARY_FIELDS) {
+            projection.append(field, 1);
+        }
+        projection.append("images", new Document("$slice", List.of("$images", 1)));
+        return new Document("$project", projection);
+    }
+
+    private static List<Document> countBy(String field, Integer limit) {
+        List<Document> stages = new ArrayList<>(List.of(
+                new Document("$group", new Document("_id", field).append("count", new Document("$sum", 1))),
+                new Document("$sort", new Document("count", -1).append("_id", 1))));
+        if (limit != null) {
+            stages.add(new Document("$limit", limit));
+        }
+        return stages;
+    }
+
+    private static List<Document> amenityCounts(int limit) {
+        List<Document> stages = new ArrayList<>();
+        stages.add(new Document("$unwind", "$amenities"));
+        stages.addAll(countBy("$amenities", limit));
+        return stages;
+    }
+
+    /**
+     * Aggregation counting how many matches offer each amenity, most common first. {@code filter}
+     * is the mapped {@link #buildCount()} document.
+     */
+    public static List<Document> buildAmenityFacetPipeline(Document filter, int limit) {
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$match", filter));
+        pipeline.addAll(amenityCounts(limit));
+        return pipeline;
+    }
+
+    private static Document weighted(double weight, Object score) {
+        return new Document("$multiply", List.of(weight, score));
+    }
+
+    // 1 / (1 + value / reference): 1 at zero, one half at the reference value
+    private static Document decay(Object value, double reference) {
+        return new Document("$divide", List.of(1, new Document("$add", List.of(1, new Document("$divide", List.of(value, reference))))));
+    }
+
+    private Sort sort() {
+        if (sortOrder == null) {
+            return Sort.unsorted();
+        }
+        return switch (sortOrder) {
+            case NEWEST -> Sort.by(Sort.Direction.DESC, "createdAt", "id");
+            case PRICE_ASC -> Sort.by(Sort.Direction.ASC, "price", "id");
+            case PRICE_DESC -> Sort.by(Sort.Direction.DESC, "price", "id");
+            case AREA_ASC -> Sort.by(Sort.Direction.ASC, "area", "id");
+            case AREA_DESC -> Sort.by(Sort.Direction.DESC, "area", "id");
+            case DISTANCE, RELEVANCE -> Sort.unsorted();
+        };
+    }
+
+    /**
+     * Query for counting matches; {@code $near} is not allowed in a count, so the radius is
+     * expressed as {@code $geoWithin $centerSphere} instead.
+     */
+    public Query buildCount() {
+        Criteria criteria = filters();
+        if (isGeo()) {
+            criteria.and("location").withinSphere(circle());
+        }
+        return new Query(criteria);
+    }
+
+    /**
+     * Keyset query returning up to {@code limit} summaries with an {@code _id} below {@code afterId},
+     * newest first. Geo searches use {@code $geoWithin} here since {@code $near} imposes its own order.
+     */
+    public Query buildAfter(String afterId, int limit) {
+        Criteria criteria = filters();
+        if (isGeo()) {
+            criteria.and("location").withinSphere(circle());
+        }
+        if (afterId != null) {
+            criteria.and("id").lt(afterId);
+        }
+        return summaryProjection(new Query(criteria).with(Sort.by(Sort.Direction.DESC, "id")).limit(limit));
+    }
+
+    private Circle circle() {
+        return new Circle(new Point(longitude, latitude), new Distance(radius / 1000, Metrics.KILOMETERS));
+    }
+
+    private Criteria filters() {
+        Criteria criteria = new Criteria();
+        if (status != null) {
+            criteria.and("status").is(status);
+        }
+        if (city != null) {
+            criteria.and("city").is(city);
+        }
+        if (type != null) {
+            criteria.and("type").is(type);
+        }
+        if (minPrice != null && maxPrice != null) {
+            criteria.and("price").gte(minPrice).lte(maxPrice);
+        } else if (minPrice != null) {
+            criteria.and("price").gte(minPrice);
+        } else if (maxPrice != null) {
+            criteria.and("price").lte(maxPrice);
+        }
+        if (minBedrooms != null) {
+            criteria.and("bedrooms").gte(minBedrooms);
+        }
+        if (!keywords.isEmpty()) {
+            criteria.and("searchTokens").all(keywords);
+        }
+        if (!amenities.isEmpty()) {
+            criteria.and("amenities").all(amenities);
+        }
+        return criteria;
+    }
+}
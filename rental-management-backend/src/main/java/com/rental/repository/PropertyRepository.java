@@ -13,7 +13,7 @@ import java.math.BigDecimal;
 import java.util.List;
 
 @Repository
-public interface PropertyRepository extends MongoRepository<Property, String> {
+public interface PropertyRepository extends MongoRepository<Property, String>, PropertyRepositoryCustom {
     Page<Property> findByStatus(Property.PropertyStatus status, Pageable pageable);
     
     Page<Property> findByCityAndStatus(String city, Property.PropertyStatus status, Pageable pageable);
@@ -0,0 +1,65 @@
+package com.rental.repository;
+
+import com.rental.dto.ExportFilter;
+import com.rental.dto.SearchFacets;
+import com.rental.model.Property;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface PropertyRepositoryCustom {
+    Page<Property> search(PropertyQueryBuilder queryBuilder, Pageable pageable, boolean includeTotal);
+    
+    List<Property> searchAfter(PropertyQueryBuilder queryBuilder, String afterId, int limit);
+    
+    /**
+     * Number of matching properties offering each amenity, for the {@code limit} most common ones.
+     */
+    Map<String, Long> countAmenities(PropertyQueryBuilder queryBuilder, int limit);
+    
+    /**
+     * One page of summaries plus the facet counts over all matches, from a single aggregation.
+     */
+    FacetedResult searchWithFacets(PropertyQueryBuilder queryBuilder, Pageable pageable, int maxFacetValues);
+    
+    record FacetedResult(List<Property> content, SearchFacets facets) {
+    }
+    
+    /**
+     * Loads the given properties with only their summary fields, in no particular order.
+     */
+    List<Property> findSummariesByIds(Collection<String> ids);
+    
+    /**
+     * Atomically moves the property from {@code expected} to {@code next}; returns the updated
+     * document, or {@code null} if the property was not in the expected status.
+     */
+    Property compareAndSetStatus(String id, Property.PropertyStatus expected, Property.PropertyStatus next);
+    
+    /**
+     * Reads the current version of the property from the database, {@code null} if it does not exist.
+     */
+    Long findVersion(String id);
+    
+    /**
+     * Atomically increments the version of the property if it still equals {@code expected};
+     * returns {@code false} if another write changed the property in between.
+     */
+    boolean compareAndIncrementVersion(String id, Long expected);
+    
+    /**
+     * One page of summaries, in id order, of the bookable properties in the city without a booking
+     * overlapping {@code [start, end)}, found by a single aggregation.
+     */
+    Page<Property> findAvailableInCity(String city, Date start, Date end, Pageable pageable, boolean includeTotal);
+    
+    /**
+     * Streams matching properties in id order over a server-side cursor; the caller must close the stream.
+     */
+    Stream<Property> streamForExport(ExportFilter filter);
+}
@@ -0,0 +1,231 @@
+package com.rental.repository;
+
+import com.rental.dto.ExportFilter;
+import com.rental.dto.SearchFacets;
+import com.mongodb.client.MongoCollection;
+import com.rental.model.Property;
+import com.rental.model.Transaction;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class PropertyRepositoryCustomImpl implements PropertyRepositoryCustom {
+
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Page<Property> search(PropertyQueryBuilder queryBuilder, Pageable pageable, boolean includeTotal) {
+        // Fetch one extra row to learn whether a next page exists without counting
+        int limit = includeTotal ? pageable.getPageSize() : pageable.getPageSize() + 1;
+        List<Property> content = queryBuilder.isRelevanceOrdered()
+                ? searchByRelevance(queryBuilder, pageable.getOffset(), limit)
+                : mongoTemplate.find(queryBuilder.build(pageable).limit(limit), Property.class);
+        
+        if (includeTotal) {
+            return PageableExecutionUtils.getPage(content, pageable,
+                    () -> mongoTemplate.count(queryBuilder.buildCount(), Property.class));
+        }
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+        return new PageImpl<>(content, pageable, pageable.getOffset() + content.size() + (hasNext ? 1 : 0));
+    }
+    
+    private List<Property> searchByRelevance(PropertyQueryBuilder queryBuilder, long skip, int limit) {
+        Document filter = mappedFilter(queryBuilder.buildFilter());
+        
+        List<Property> content = new ArrayList<>(limit);
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Property.class))
+                .aggregate(queryBuilder.buildRelevancePipeline(filter, skip, limit))
+                .forEach(document -> content.add(mongoTemplate.getConverter().read(Property.class, document)));
+        return content;
+    }
+    
+    @Override
+    public Map<String, Long> countAmenities(PropertyQueryBuilder queryBuilder, int limit) {
+        Document filter = mappedFilter(queryBuilder.buildCount());
+        
+        Map<String, Long> counts = new LinkedHashMap<>();
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Property.class))
+                .aggregate(PropertyQueryBuilder.buildAmenityFacetPipeline(filter, limit))
+                .forEach(document -> counts.put(document.getString("_id"), document.get("count", Number.class).longValue()));
+        return counts;
+    }
+    
+    @Override
+    public FacetedResult searchWithFacets(PropertyQueryBuilder queryBuilder, Pageable pageable, int maxFacetValues) {
+        Document filter = mappedFilter(queryBuilder.buildFilter());
+        Document result = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Property.class))
+                .aggregate(queryBuilder.buildFacetPipeline(filter, pageable.getOffset(), pageable.getPageSize(), maxFacetValues))
+                .first();
+        
+        List<Property> content = new ArrayList<>(pageable.getPageSize());
+        SearchFacets facets = new SearchFacets();
+        if (result == null) {
+            return new FacetedResult(content, facets);
+        }
+        
+        result.getList("results", Document.class)
+                .forEach(document -> content.add(mongoTemplate.getConverter().read(Property.class, document)));
+        List<Document> total = result.getList("total", Document.class);
+        facets.setTotal(total.isEmpty() ? 0 : total.get(0).get("count", Number.class).longValue());
+        for (Document bucket : result.getList("types", Document.class)) {
+            putCount(facets.getTypes(), bucket.getString("_id"), bucket);
+        }
+        for (Document bucket : result.getList("cities", Document.class)) {
+            putCount(facets.getCities(), bucket.getString("_id"), bucket);
+        }
+        for (Document bucket : result.getList("bedrooms", Document.class)) {
+            Number bedrooms = bucket.get("_id", Number.class);
+            putCount(facets.getBedrooms(), bedrooms != null ? bedrooms.intValue() : null, bucket);
+        }
+        for (Document bucket : result.getList("amenities", Document.class)) {
+            putCount(facets.getAmenities(), bucket.getString("_id"), bucket);
+        }
+        
+        long[] boundaries = PropertyQueryBuilder.PRICE_FACET_BOUNDARIES;
+        for (Document bucket : result.getList("prices", Document.class)) {
+            long min = bucket.get("_id", Number.class).longValue();
+            Long max = null;
+            for (int i = 0; i < boundaries.length - 1; i++) {
+                if (boundaries[i] == min) {
+                    max = boundaries[i + 1];
+                }
+            }
+            facets.getPrices().add(new SearchFacets.PriceRange(min, max, bucket.get("count", Number.class).longValue()));
+        }
+        return new FacetedResult(content, facets);
+    }
+    
+    private static <K> void putCount(Map<K, Long> counts, K value, Document bucket) {
+        if (value != null) {
+            counts.put(value, bucket.get("count", Number.class).longValue());
+        }
+    }
+    
+    // Pipelines sent through the driver bypass the template, so field names and enums are mapped here
+    private Document mappedFilter(Query query) {
+        return mappedFilter(query, Property.class);
+    }
+    
+    private Document mappedFilter(Query query, Class<?> entityClass) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(entityClass);
+        return new QueryMapper(mongoTemplate.getConverter()).getMappedObject(query.getQueryObject(), entity);
+    }
+    
+    @Override
+    public List<Property> searchAfter(PropertyQueryBuilder queryBuilder, String afterId, int limit) {
+        return mongoTemplate.find(queryBuilder.buildAfter(afterId, limit), Property.class);
+    }
+    
+    @Override
+    public List<Property> findSummariesByIds(Collection<String> ids) {
+        Query query = PropertyQueryBuilder.summaryProjection(Query.query(Criteria.where("id").in(ids)));
+        return mongoTemplate.find(query, Property.class);
+    }
+    
+    @Override
+    public Property compareAndSetStatus(String id, Property.PropertyStatus expected, Property.PropertyStatus next) {
+        Query query = Query.query(Criteria.where("id").is(id).and("status").is(expected));
+        Update update = new Update()
+                .set("status", next)
+                .set("updatedAt", new Date())
+                .inc("version", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Property.class);
+    }
+    
+    @Override
+    public Long findVersion(String id) {
+        Query query = Query.query(Criteria.where("id").is(id));
+        query.fields().include("version");
+        Property property = mongoTemplate.findOne(query, Property.class);
+        return property != null ? property.getVersion() : null;
+    }
+    
+    @Override
+    public boolean compareAndIncrementVersion(String id, Long expected) {
+        Query query = Query.query(Criteria.where("id").is(id).and("version").is(expected));
+        return mongoTemplate.updateFirst(query, new Update().inc("version", 1), Property.class).getModifiedCount() == 1;
+    }
+    
+    @Override
+    public Page<Property> findAvailableInCity(String city, Date start, Date end, Pageable pageable, boolean includeTotal) {
+        Document filter = mappedFilter(Query.query(bookableInCity(city)), Property.class);
+        Document overlapping = mappedFilter(Query.query(TransactionRepositoryCustomImpl.overlapping(start, end)), Transaction.class);
+        // As in search, fetch one extra row to learn whether a next page exists without counting
+        int limit = includeTotal ? pageable.getPageSize() : pageable.getPageSize() + 1;
+        List<Document> pipeline = PropertyQueryBuilder.buildAvailabilityPipeline(filter,
+                mongoTemplate.getCollectionName(Transaction.class), overlapping, pageable.getOffset(), limit, includeTotal);
+        MongoCollection<Document> properties = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Property.class));
+        
+        List<Property> content = new ArrayList<>(limit);
+        if (includeTotal) {
+            Document result = properties.aggregate(pipeline).first();
+            if (result == null) {
+                return new PageImpl<>(content, pageable, 0);
+            }
+            result.getList("results", Document.class)
+                    .forEach(document -> content.add(mongoTemplate.getConverter().read(Property.class, document)));
+            List<Document> total = result.getList("total", Document.class);
+            return new PageImpl<>(content, pageable, total.isEmpty() ? 0 : total.get(0).get("count", Number.class).longValue());
+        }
+        
+        properties.aggregate(pipeline)
+                .forEach(document -> content.add(mongoTemplate.getConverter().read(Property.class, document)));
+        boolean hasNext = content.size() > pageable.getPageSize();
+        List<Property> page = hasNext ? content.subList(0, pageable.getPageSize()) : content;
+        return new PageImpl<>(page, pageable, pageable.getOffset() + page.size() + (hasNext ? 1 : 0));
+    }
+    
+    @Override
+    public Stream<Property> streamForExport(ExportFilter filter) {
+        Criteria criteria = new Criteria();
+        if (filter.getOwnerId() != null) {
+            criteria.and("ownerId").is(filter.getOwnerId());
+        }
+        if (filter.getCity() != null) {
+            criteria.and("city").is(filter.getCity());
+        }
+        if (filter.getStatus() != null) {
+            criteria.and("status").is(Property.PropertyStatus.valueOf(filter.getStatus()));
+        }
+        if (filter.getFrom() != null || filter.getTo() != null) {
+            Criteria createdAt = criteria.and("createdAt");
+            if (filter.getFrom() != null) {
+                createdAt.gte(filter.getFrom());
+            }
+            if (filter.getTo() != null) {
+                createdAt.lt(filter.getTo());
+            }
+        }
+        Query query = Query.query(criteria).with(Sort.by("id")).cursorBatchSize(EXPORT_BATCH_SIZE);
+        return mongoTemplate.stream(query, Property.class);
+    }
+    
+    private Criteria bookableInCity(String city) {
+        return Criteria.where("city").is(city).and("status").ne(Property.PropertyStatus.MAINTENANCE);
+    }
+}
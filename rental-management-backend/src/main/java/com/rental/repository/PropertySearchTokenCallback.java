@@ -0,0 +1,20 @@
+package com.rental.repository;
+
+import com.rental.model.Property;
+import com.rental.util.SearchTokenizer;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes {@code searchTokens} whenever a property is saved or bulk inserted, so the keyword
+ * index can never drift from the text it was derived from.
+ */
+@Component
+public class PropertySearchTokenCallback implements BeforeConvertCallback<Property> {
+
+    @Override
+    public Property onBeforeConvert(Property property, String collection) {
+        property.setSearchTokens(SearchTokenizer.indexTokens(property));
+        return property;
+    }
+}
@@ -6,10 +6,17 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface TransactionRepository extends MongoRepository<Transaction, String> {
+public interface TransactionRepository extends MongoRepository<Transaction, String>, TransactionRepositoryCustom {
     Page<Transaction> findByTenantId(String tenantId, Pageable pageable);
     Page<Transaction> findByOwnerId(String ownerId, Pageable pageable);
     Page<Transaction> findByPropertyId(String propertyId, Pageable pageable);
+    
+    List<Transaction> findByTenantIdOrderByIdDesc(String tenantId, Pageable pageable);
+    List<Transaction> findByTenantIdAndIdLessThanOrderByIdDesc(String tenantId, String id, Pageable pageable);
+    List<Transaction> findByOwnerIdOrderByIdDesc(String ownerId, Pageable pageable);
+    List<Transaction> findByOwnerIdAndIdLessThanOrderByIdDesc(String ownerId, String id, Pageable pageable);
 }
 
@@ -0,0 +1,31 @@
+package com.rental.repository;
+
+import com.rental.dto.ExportFilter;
+import com.rental.model.Transaction;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface TransactionRepositoryCustom {
+    /**
+     * Atomically moves the transaction from {@code expected} to {@code next}; returns the updated
+     * document, or {@code null} if the transaction was not in the expected status.
+     */
+    Transaction compareAndSetStatus(String id, Transaction.TransactionStatus expected, Transaction.TransactionStatus next);
+    
+    /**
+     * Whether another booked transaction for the property overlaps {@code [start, end)}.
+     */
+    boolean hasOverlappingBooking(String propertyId, Date start, Date end, String excludeId);
+    
+    /**
+     * Booked periods of the property that end after {@code from}, ordered by start, with only the dates loaded.
+     */
+    List<Transaction> findBookingsEndingAfter(String propertyId, Date from);
+    
+    /**
+     * Streams matching transactions in id order over a server-side cursor; the caller must close the stream.
+     */
+    Stream<Transaction> streamForExport(ExportFilter filter);
+}
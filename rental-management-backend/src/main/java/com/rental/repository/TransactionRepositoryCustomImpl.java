@@ -0,0 +1,85 @@
+package com.rental.repository;
+
+import com.rental.dto.ExportFilter;
+import com.rental.model.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    private static final List<Transaction.TransactionStatus> BOOKED = List.of(
+            Transaction.TransactionStatus.APPROVED, Transaction.TransactionStatus.COMPLETED);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Transaction compareAndSetStatus(String id, Transaction.TransactionStatus expected,
+                                           Transaction.TransactionStatus next) {
+        Query query = Query.query(Criteria.where("id").is(id).and("status").is(expected));
+        Update update = new Update()
+                .set("status", next)
+                .set("updatedAt", new Date())
+                .inc("version", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Transaction.class);
+    }
+
+    @Override
+    public boolean hasOverlappingBooking(String propertyId, Date start, Date end, String excludeId) {
+        Criteria criteria = overlapping(start, end).and("propertyId").is(propertyId);
+        if (excludeId != null) {
+            criteria.and("id").ne(excludeId);
+        }
+        return mongoTemplate.exists(Query.query(criteria), Transaction.class);
+    }
+
+    @Override
+    public List<Transaction> findBookingsEndingAfter(String propertyId, Date from) {
+        Query query = Query.query(Criteria.where("propertyId").is(propertyId)
+                .and("status").in(BOOKED)
+                .and("endDate").gt(from))
+                .with(Sort.by("startDate"));
+        query.fields().include("startDate", "endDate");
+        return mongoTemplate.find(query, Transaction.class);
+    }
+
+    @Override
+    public Stream<Transaction> streamForExport(ExportFilter filter) {
+        Criteria criteria = new Criteria();
+        if (filter.getOwnerId() != null) {
+            criteria.and("ownerId").is(filter.getOwnerId());
+        }
+        if (filter.getStatus() != null) {
+            criteria.and("status").is(Transaction.TransactionStatus.valueOf(filter.getStatus()));
+        }
+        if (filter.getFrom() != null || filter.getTo() != null) {
+            Criteria createdAt = criteria.and("createdAt");
+            if (filter.getFrom() != null) {
+                createdAt.gte(filter.getFrom());
+            }
+            if (filter.getTo() != null) {
+                createdAt.lt(filter.getTo());
+            }
+        }
+        Query query = Query.query(criteria).with(Sort.by("id")).cursorBatchSize(EXPORT_BATCH_SIZE);
+        return mongoTemplate.stream(query, Transaction.class);
+    }
+
+    // Bookings that block the period; also the booking side of the availability anti-join
+    static Criteria overlapping(Date start, Date end) {
+        return Criteria.where("status").in(BOOKED)
+                .and("startDate").lt(end)
+                .and("endDate").gt(start);
+    }
+}
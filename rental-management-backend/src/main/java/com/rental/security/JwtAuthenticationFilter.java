@@ -1,10 +1,17 @@
 package com.rental.security;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rental.model.User;
+import com.rental.util.EvictionSafeCache;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,6 +22,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -25,28 +33,72 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // When enabled, every request re-checks the account (e.g. disabled users) through a short-lived cache
+    @Value("${spring.security.jwt.verify-user:false}")
+    private boolean verifyUser;
+    
+    @Value("${spring.security.jwt.user-cache-ttl:30s}")
+    private Duration userCacheTtl;
+    
+    private EvictionSafeCache<String, UserDetails> userCache;
+    
+    @Override
+    protected void initFilterBean() {
+        userCache = new EvictionSafeCache<>(Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(userCacheTtl)
+                .<String, UserDetails>build());
+    }
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "anonymous";
         try {
             String jwt = getJwtFromRequest(request);
             
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt, 
-                    userDetailsService.loadUserByUsername(tokenProvider.getUsernameFromToken(jwt)))) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (StringUtils.hasText(jwt)) {
+                result = "rejected";
+                Claims claims = tokenProvider.parseToken(jwt);
+                UserDetails userDetails = resolveUser(claims);
+                if (userDetails.isEnabled()) {
+                    UsernamePasswordAuthenticationToken authentication = 
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    result = "authenticated";
+                }
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
         }
+        // Only the token handling is timed, not the rest of the chain
+        sample.stop(meterRegistry.timer("jwt.authentication", "result", result));
         
         filterChain.doFilter(request, response);
     }
     
+    private UserDetails resolveUser(Claims claims) {
+        String email = claims.getSubject();
+        String userId = claims.get(JwtTokenProvider.USER_ID_CLAIM, String.class);
+        String role = claims.get(JwtTokenProvider.ROLE_CLAIM, String.class);
+        
+        if (verifyUser || userId == null || role == null) {
+            return userCache.get(email, userDetailsService::loadUserByUsername);
+        }
+        
+        User user = new User();
+        user.setId(userId);
+        user.setEmail(email);
+        user.setRole(role);
+        user.setEnabled(true);
+        return user;
+    }
+    
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -55,4 +107,3 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
 }
-
@@ -1,8 +1,15 @@
 package com.rental.security;
 
+import com.rental.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,20 +17,74 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.function.Function;
 
 @Component
 public class JwtTokenProvider {
     
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    
     @Value("${spring.security.jwt.secret}")
     private String jwtSecret;
     
+    // Secrets that were active before a rotation; tokens signed with them stay valid until they expire
+    @Value("${spring.security.jwt.previous-secrets:}")
+    private String[] previousSecrets;
+    
     @Value("${spring.security.jwt.expiration}")
     private long jwtExpiration;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    private SecretKey signingKey;
+    private String signingKeyId;
+    private JwtParser parser;
+    
+    @PostConstruct
+    public void init() {
+        Map<String, SecretKey> verificationKeys = new HashMap<>();
+        for (String secret : previousSecrets) {
+            if (!secret.isBlank()) {
+                verificationKeys.put(keyId(secret), Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        signingKeyId = keyId(jwtSecret);
+        verificationKeys.put(signingKeyId, signingKey);
+        
+        // JwtParser is immutable and thread-safe, so one instance serves all requests
+        parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String keyId = header.getKeyId();
+                        if (keyId == null) {
+                            return signingKey;
+                        }
+                        SecretKey key = verificationKeys.get(keyId);
+                        if (key == null) {
+                            throw new JwtException("Unknown signing key: " + keyId);
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+    
+    private static String keyId(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
     }
     
     public String generateToken(Authentication authentication) {
@@ -31,11 +92,18 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
         
-        return Jwts.builder()
-                .subject(userDetails.getUsername())
+        JwtBuilder builder = Jwts.builder()
+                .header().keyId(signingKeyId).and()
+                .subject(userDetails.getUsername());
+        if (userDetails instanceof User user) {
+            builder.claim(USER_ID_CLAIM, user.getId())
+                    .claim(ROLE_CLAIM, user.getRole());
+        }
+        
+        return builder
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
@@ -52,12 +120,15 @@ public class JwtTokenProvider {
         return claimsResolver.apply(claims);
     }
     
+    /**
+     * Verifies the signature and expiry of the token and returns its claims in a single parse.
+     */
+    public Claims parseToken(String token) {
+        return getAllClaimsFromToken(token);
+    }
+    
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
     
     public Boolean validateToken(String token, UserDetails userDetails) {
@@ -58,6 +58,8 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
+                // Scraped by Prometheus from inside the network; do not route /actuator publicly
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                 .requestMatchers("/api/properties/**").permitAll()
                 .requestMatchers("/api/transactions/**").authenticated()
                 .anyRequest().authenticated()
@@ -0,0 +1,119 @@
+package com.rental.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rental.dto.PropertySummary;
+import com.rental.model.Transaction;
+import com.rental.repository.PropertyRepository;
+import com.rental.repository.TransactionRepository;
+import com.rental.util.EvictionSafeCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Answers whether a property is free for a period. Booked periods of recently queried properties
+ * are kept in memory as interval calendars; everything else goes to the
+ * {@code propertyId + startDate + endDate} index on transactions.
+ */
+@Service
+public class AvailabilityService {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Value("${app.availability.calendar-ttl:30s}")
+    private Duration calendarTtl;
+
+    @Value("${app.availability.calendar-max-size:10000}")
+    private long calendarMaxSize;
+
+    private EvictionSafeCache<String, BookingCalendar> calendars;
+
+    @PostConstruct
+    public void init() {
+        calendars = new EvictionSafeCache<>(Caffeine.newBuilder()
+                .maximumSize(calendarMaxSize)
+                .expireAfterWrite(calendarTtl)
+                .build());
+    }
+
+    public boolean isAvailable(String propertyId, Date startDate, Date endDate) {
+        validatePeriod(startDate, endDate);
+        // A calendar loaded while a booking was approved is not cached, see EvictionSafeCache
+        BookingCalendar calendar = calendars.get(propertyId, this::loadCalendar);
+        if (startDate.getTime() < calendar.loadedFrom()) {
+            // The calendar only holds bookings that had not ended when it was loaded
+            return !transactionRepository.hasOverlappingBooking(propertyId, startDate, endDate, null);
+        }
+        return calendar.isFree(startDate.getTime(), endDate.getTime());
+    }
+
+    /**
+     * Authoritative check against the database, used when a booking is approved.
+     */
+    public boolean isAvailableExcluding(String propertyId, Date startDate, Date endDate, String transactionId) {
+        return !transactionRepository.hasOverlappingBooking(propertyId, startDate, endDate, transactionId);
+    }
+
+    public Page<PropertySummary> findAvailableProperties(String city, Date startDate, Date endDate,
+                                                         Pageable pageable, boolean includeTotal) {
+        validatePeriod(startDate, endDate);
+        return propertyRepository.findAvailableInCity(city, startDate, endDate, pageable, includeTotal)
+                .map(PropertySummary::of);
+    }
+
+    public void evict(String propertyId) {
+        calendars.invalidate(propertyId);
+    }
+
+    public void validatePeriod(Date startDate, Date endDate) {
+        if (startDate == null || endDate == null || !startDate.before(endDate)) {
+            throw new RuntimeException("Start date must be before end date");
+        }
+    }
+
+    private BookingCalendar loadCalendar(String propertyId) {
+        long now = System.currentTimeMillis();
+        TreeMap<Long, Long> periods = new TreeMap<>();
+        // Bookings arrive ordered by start; merge any that overlap (e.g. approved before overlaps were checked)
+        Map.Entry<Long, Long> last = null;
+        for (Transaction booking : transactionRepository.findBookingsEndingAfter(propertyId, new Date(now))) {
+            long start = booking.getStartDate().getTime();
+            long end = booking.getEndDate().getTime();
+            if (last != null && start <= last.getValue()) {
+                periods.put(last.getKey(), Math.max(last.getValue(), end));
+            } else {
+                periods.put(start, end);
+            }
+            last = periods.lastEntry();
+        }
+        return new BookingCalendar(now, periods);
+    }
+
+    /**
+     * Booked periods of one property keyed by start, merged so they are disjoint. A window is free
+     * iff it starts after the previous period ends and ends before the next period starts.
+     */
+    private record BookingCalendar(long loadedFrom, TreeMap<Long, Long> periods) {
+
+        boolean isFree(long start, long end) {
+            Map.Entry<Long, Long> previous = periods.floorEntry(start);
+            if (previous != null && previous.getValue() > start) {
+                return false;
+            }
+            Long next = periods.higherKey(start);
+            return next == null || next >= end;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.rental.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.rental.dto.ExportFilter;
+import com.rental.model.Property;
+import com.rental.model.Transaction;
+import com.rental.model.User;
+import com.rental.repository.PropertyRepository;
+import com.rental.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes query results as NDJSON straight from a Mongo cursor. Documents are serialized one at a
+ * time and the cursor only fetches its next batch once the response has accepted the previous
+ * one, so heap usage does not grow with the size of the export.
+ */
+@Service
+public class ExportService {
+
+    private static final int FLUSH_EVERY = 500;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public StreamingResponseBody exportProperties(ExportFilter filter) {
+        filter.setStatus(normalize(filter.getStatus(), Property.PropertyStatus::valueOf));
+        return out -> write(propertyRepository.streamForExport(filter), out);
+    }
+
+    public StreamingResponseBody exportOwnerTransactions(ExportFilter filter) {
+        // Resolve the owner and validate filters before the response is committed
+        User currentUser = userService.getCurrentUser();
+        filter.setOwnerId(currentUser.getId());
+        filter.setStatus(normalize(filter.getStatus(), Transaction.TransactionStatus::valueOf));
+        return out -> write(transactionRepository.streamForExport(filter), out);
+    }
+
+    private <T> void write(Stream<T> documents, OutputStream out) throws IOException {
+        try (documents; SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            Iterator<T> iterator = documents.iterator();
+            long written = 0;
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                if (++written % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+            if (written > 0) {
+                out.write('\n'); // the separator only goes between documents
+            }
+        }
+    }
+
+    private String normalize(String status, Function<String, ? extends Enum<?>> parser) {
+        if (status == null || status.isEmpty()) {
+            return null;
+        }
+        try {
+            return parser.apply(status.toUpperCase(Locale.ROOT)).name();
+        } catch (IllegalArgumentException ex) {
+            throw new RuntimeException("Invalid status: " + status);
+        }
+    }
+}
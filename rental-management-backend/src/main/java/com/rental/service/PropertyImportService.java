@@ -0,0 +1,272 @@
+package com.rental.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mongodb.bulk.BulkWriteError;
+import com.rental.cache.PropertySearchCacheIndex;
+import com.rental.dto.ImportResult;
+import com.rental.dto.PropertyRequest;
+import com.rental.model.Property;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams NDJSON or CSV listings into the properties collection. Rows are validated against the
+ * {@link PropertyRequest} constraints and inserted in unordered batches, so one bad row never
+ * blocks the rest; the search cache is invalidated once when the import finishes.
+ */
+@Service
+public class PropertyImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(PropertyImportService.class);
+
+    private static final Set<String> LIST_COLUMNS = Set.of("amenities", "images");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PropertyService propertyService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PropertySearchCacheIndex searchCacheIndex;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public ImportResult importNdjson(InputStream input) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(PropertyRequest.class);
+        Batch batch = new Batch(userService.getCurrentUser().getId());
+
+        try (BufferedReader lines = open(input)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(lineNumber, reader.readValue(line));
+                } catch (JsonProcessingException ex) {
+                    batch.reject(lineNumber, "Malformed JSON: " + ex.getOriginalMessage());
+                }
+            }
+        }
+        return batch.finish();
+    }
+
+    /**
+     * The first record names the columns (matching {@link PropertyRequest} fields); list columns
+     * such as {@code amenities} and {@code images} separate their values with {@code |}.
+     */
+    public ImportResult importCsv(InputStream input) throws IOException {
+        Batch batch = new Batch(userService.getCurrentUser().getId());
+
+        try (BufferedReader lines = open(input)) {
+            long[] lineNumber = {0};
+            List<String> header = readRecord(lines, lineNumber);
+            if (header == null) {
+                return batch.finish();
+            }
+
+            List<String> record;
+            long recordLine = lineNumber[0] + 1;
+            while ((record = readRecord(lines, lineNumber)) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    recordLine = lineNumber[0] + 1;
+                    continue;
+                }
+                if (record.size() != header.size()) {
+                    batch.reject(recordLine, "Expected " + header.size() + " columns but found " + record.size());
+                } else {
+                    try {
+                        batch.add(recordLine, objectMapper.convertValue(toFields(header, record), PropertyRequest.class));
+                    } catch (IllegalArgumentException ex) {
+                        batch.reject(recordLine, "Invalid value: " + ex.getMessage());
+                    }
+                }
+                recordLine = lineNumber[0] + 1;
+            }
+        }
+        return batch.finish();
+    }
+
+    private BufferedReader open(InputStream input) {
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    private Map<String, Object> toFields(List<String> header, List<String> record) {
+        Map<String, Object> fields = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).trim();
+            String value = record.get(i).trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            fields.put(column, LIST_COLUMNS.contains(column)
+                    ? Arrays.stream(value.split("\\|")).map(String::trim).toList()
+                    : value);
+        }
+        return fields;
+    }
+
+    /**
+     * Reads one RFC 4180 record; quoted fields may contain commas, doubled quotes and line breaks.
+     */
+    private List<String> readRecord(BufferedReader lines, long[] lineNumber) throws IOException {
+        String line = lines.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber[0]++;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                String next = lines.readLine();
+                if (next == null) {
+                    break;
+                }
+                lineNumber[0]++;
+                field.append('\n');
+                line = next;
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"' && i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Accumulates valid rows and flushes them as unordered bulk inserts.
+     */
+    private class Batch {
+
+        private final String ownerId;
+        private final ImportResult result = new ImportResult();
+        private final List<Property> properties = new ArrayList<>(batchSize);
+        private final List<Long> lineNumbers = new ArrayList<>(batchSize);
+
+        Batch(String ownerId) {
+            this.ownerId = ownerId;
+        }
+
+        void add(long line, PropertyRequest request) {
+            if (request == null) {
+                reject(line, "Row is empty");
+                return;
+            }
+            Set<ConstraintViolation<PropertyRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(line, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+
+            Property property = propertyService.newProperty(request, ownerId);
+            property.setVersion(0L);
+            properties.add(property);
+            lineNumbers.add(line);
+            if (properties.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxReportedErrors) {
+                result.getErrors().add(new ImportResult.RowError(line, message));
+            }
+        }
+
+        ImportResult finish() {
+            flush();
+            if (result.getImported() > 0) {
+                searchCacheIndex.evictAll();
+            }
+            log.info("Imported {} properties for owner {}, {} rows rejected", result.getImported(), ownerId, result.getFailed());
+            return result;
+        }
+
+        private void flush() {
+            if (properties.isEmpty()) {
+                return;
+            }
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Property.class);
+            bulk.insert(properties);
+            try {
+                result.setImported(result.getImported() + bulk.execute().getInsertedCount());
+            } catch (BulkOperationException ex) {
+                result.setImported(result.getImported() + ex.getResult().getInsertedCount());
+                for (BulkWriteError error : ex.getErrors()) {
+                    reject(lineNumbers.get(error.getIndex()), error.getMessage());
+                }
+            }
+            properties.clear();
+            lineNumbers.clear();
+        }
+    }
+}
@@ -1,26 +1,42 @@
 package com.rental.service;
 
+import com.rental.cache.PropertyGeoCellCache;
+import com.rental.cache.PropertyNegativeCache;
+import com.rental.cache.PropertySearchCacheIndex;
+import com.rental.cache.PropertySpatialIndex;
+import com.rental.config.RedisConfig;
+import com.rental.dto.CursorPage;
+import com.rental.dto.FacetedSearchResult;
+import com.rental.dto.PageCursor;
 import com.rental.dto.PropertyRequest;
 import com.rental.dto.PropertySearchRequest;
+import com.rental.dto.PropertySummary;
+import com.rental.dto.SearchFacets;
 import com.rental.model.Property;
 import com.rental.model.User;
+import com.rental.repository.PropertyQueryBuilder;
 import com.rental.repository.PropertyRepository;
+import com.rental.repository.PropertyRepositoryCustom;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.geo.Distance;
-import org.springframework.data.geo.Metrics;
-import org.springframework.data.geo.Point;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class PropertyService {
@@ -31,78 +47,176 @@ public class PropertyService {
     @Autowired
     private UserService userService;
     
-    @Cacheable(value = "properties", key = "#id")
+    @Autowired
+    private PropertySearchCacheIndex searchCacheIndex;
+    
+    @Autowired
+    private PropertyGeoCellCache geoCellCache;
+    
+    @Autowired(required = false)
+    private PropertySpatialIndex spatialIndex;
+    
+    @Autowired
+    private PropertyNegativeCache negativeCache;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Value("${app.cache.property-facets.max-values:20}")
+    private int maxFacetValues;
+    
+    // sync: concurrent misses for one key share a single load instead of each querying MongoDB
+    @Cacheable(value = "property", key = "#id", sync = true)
     public Property getPropertyById(String id) {
+        if (negativeCache.isMissing(id)) {
+            throw new RuntimeException("Property not found");
+        }
         return propertyRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Property not found"));
+                .orElseThrow(() -> {
+                    negativeCache.recordMissing(id);
+                    return new RuntimeException("Property not found");
+                });
     }
     
-    @Cacheable(value = "properties", key = "#searchRequest.toString()")
-    public Page<Property> searchProperties(PropertySearchRequest searchRequest) {
-        Pageable pageable = PageRequest.of(searchRequest.getPage(), searchRequest.getSize());
-        
-        // Geospatial search
-        if (searchRequest.getLatitude() != null && searchRequest.getLongitude() != null) {
-            double radius = searchRequest.getRadius() != null ? searchRequest.getRadius() : 5000; // default 5km
-            List<Property> nearbyProperties = propertyRepository.findNearbyProperties(
-                    searchRequest.getLatitude(),
-                    searchRequest.getLongitude(),
-                    radius
-            );
-            
-            // Apply additional filters
-            return filterProperties(nearbyProperties, searchRequest, pageable);
+    /**
+     * One page of search results. Non-geo pages are cached per request; geo searches rarely repeat
+     * exact coordinates, so they are cached per grid cell instead. Concurrent misses for one page
+     * share a single load, and the loading call indexes the page for eviction once it is stored.
+     */
+    public Page<PropertySummary> searchProperties(PropertySearchRequest searchRequest) {
+        PropertyQueryBuilder query = PropertyQueryBuilder.from(searchRequest);
+        Cache cache = query.isGeo() ? null : cacheManager.getCache(RedisConfig.PROPERTY_SEARCH_CACHE);
+        if (cache == null) {
+            return search(query, searchRequest, searchCacheIndex.generation());
         }
         
-        // Regular search with filters
-        if (searchRequest.getCity() != null && !searchRequest.getCity().isEmpty()) {
-            return propertyRepository.findByCityAndStatus(
-                    searchRequest.getCity(),
-                    Property.PropertyStatus.AVAILABLE,
-                    pageable
-            );
+        String cacheKey = searchRequest.toString();
+        AtomicReference<Long> loadedAt = new AtomicReference<>();
+        Page<PropertySummary> page = cache.get(cacheKey, () -> {
+            long generation = searchCacheIndex.generation();
+            loadedAt.set(generation);
+            return search(query, searchRequest, generation);
+        });
+        if (loadedAt.get() != null) {
+            searchCacheIndex.register(RedisConfig.PROPERTY_SEARCH_CACHE, cacheKey, searchRequest, loadedAt.get());
         }
-        
-        if (searchRequest.getType() != null && !searchRequest.getType().isEmpty()) {
-            Property.PropertyType type = Property.PropertyType.valueOf(searchRequest.getType().toUpperCase());
-            return propertyRepository.findByTypeAndStatus(type, Property.PropertyStatus.AVAILABLE, pageable);
+        return page;
+    }
+    
+    private Page<PropertySummary> search(PropertyQueryBuilder query, PropertySearchRequest searchRequest, long generation) {
+        Pageable pageable = PageRequest.of(searchRequest.getPage(), searchRequest.getSize());
+        if (negativeCache.isEmptySearch(searchRequest)) {
+            return new PageImpl<>(List.of(), pageable, 0);
         }
-        
-        if (searchRequest.getMinPrice() != null || searchRequest.getMaxPrice() != null) {
-            BigDecimal minPrice = searchRequest.getMinPrice() != null ? 
-                    BigDecimal.valueOf(searchRequest.getMinPrice()) : BigDecimal.ZERO;
-            BigDecimal maxPrice = searchRequest.getMaxPrice() != null ? 
-                    BigDecimal.valueOf(searchRequest.getMaxPrice()) : BigDecimal.valueOf(Double.MAX_VALUE);
-            return propertyRepository.findByPriceBetweenAndStatus(
-                    minPrice, maxPrice, Property.PropertyStatus.AVAILABLE, pageable);
+        boolean includeTotal = !Boolean.FALSE.equals(searchRequest.getIncludeTotal());
+        Page<PropertySummary> page = findPage(query, pageable, includeTotal);
+        // An empty first page means the filters match nothing, whatever the page or sort order
+        if (pageable.getPageNumber() == 0 && page.getContent().isEmpty()) {
+            negativeCache.recordEmptySearch(searchRequest, generation);
         }
+        return page;
+    }
+    
+    /**
+     * The requested page plus facet counts for its filters. Facets are cached per filter signature
+     * (non-geo searches only, like pages), so paging and re-sorting only run the page query.
+     */
+    public FacetedSearchResult searchWithFacets(PropertySearchRequest searchRequest) {
+        PropertyQueryBuilder query = PropertyQueryBuilder.from(searchRequest);
+        Pageable pageable = PageRequest.of(searchRequest.getPage(), searchRequest.getSize());
+        String cacheKey = searchRequest.filterSignature();
+        Cache cache = query.isGeo() ? null : cacheManager.getCache(RedisConfig.PROPERTY_FACETS_CACHE);
         
-        return propertyRepository.findByStatus(Property.PropertyStatus.AVAILABLE, pageable);
-    }
-    
-    private Page<Property> filterProperties(List<Property> properties, PropertySearchRequest searchRequest, Pageable pageable) {
-        // Simple filtering - in production, use more sophisticated approach
-        List<Property> filtered = properties.stream()
-                .filter(p -> searchRequest.getType() == null || 
-                        p.getType().name().equalsIgnoreCase(searchRequest.getType()))
-                .filter(p -> searchRequest.getMinPrice() == null || 
-                        p.getPrice().compareTo(BigDecimal.valueOf(searchRequest.getMinPrice())) >= 0)
-                .filter(p -> searchRequest.getMaxPrice() == null || 
-                        p.getPrice().compareTo(BigDecimal.valueOf(searchRequest.getMaxPrice())) <= 0)
-                .toList();
+        SearchFacets facets = cache != null ? cache.get(cacheKey, SearchFacets.class) : null;
+        if (facets != null) {
+            Page<PropertySummary> page = findPage(query, pageable, false);
+            return new FacetedSearchResult(new PageImpl<>(page.getContent(), pageable, facets.getTotal()), facets);
+        }
         
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), filtered.size());
-        List<Property> paged = filtered.subList(start, end);
+        long generation = searchCacheIndex.generation();
+        PropertyRepositoryCustom.FacetedResult result = propertyRepository.searchWithFacets(query, pageable, maxFacetValues);
+        if (cache != null) {
+            cache.putIfAbsent(cacheKey, result.facets());
+            searchCacheIndex.register(RedisConfig.PROPERTY_FACETS_CACHE, cacheKey, searchRequest, generation);
+        }
+        List<PropertySummary> content = result.content().stream().map(PropertySummary::of).toList();
+        return new FacetedSearchResult(new PageImpl<>(content, pageable, result.facets().getTotal()), result.facets());
+    }
+    
+    private Page<PropertySummary> findPage(PropertyQueryBuilder query, Pageable pageable, boolean includeTotal) {
+        if (query.isDistanceOrdered()) {
+            PropertySpatialIndex.Result nearby = spatialIndex != null ? spatialIndex.search(query) : null;
+            if (nearby != null) {
+                return hydrate(nearby, pageable);
+            }
+            Page<PropertySummary> page = geoCellCache.search(query, pageable);
+            if (page != null) {
+                return page;
+            }
+        }
+        return propertyRepository.search(query, pageable, includeTotal).map(PropertySummary::of);
+    }
+    
+    // Only the requested page of the index result is loaded from MongoDB
+    private Page<PropertySummary> hydrate(PropertySpatialIndex.Result nearby, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), nearby.ids().size());
+        int to = Math.min(from + pageable.getPageSize(), nearby.ids().size());
+        List<String> ids = nearby.ids().subList(from, to);
         
-        return new PageImpl<>(paged, pageable, filtered.size());
+        Map<String, Property> loaded = new HashMap<>();
+        propertyRepository.findSummariesByIds(ids).forEach(property -> loaded.put(property.getId(), property));
+        List<PropertySummary> content = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Property property = loaded.get(id);
+            if (property != null) {
+                content.add(PropertySummary.of(property));
+            }
+        }
+        return new PageImpl<>(content, pageable, nearby.total());
+    }
+    
+    public Map<String, Long> countAmenities(PropertySearchRequest searchRequest, int limit) {
+        if (limit < 1 || limit > 100) {
+            throw new RuntimeException("Limit must be between 1 and 100");
+        }
+        return propertyRepository.countAmenities(PropertyQueryBuilder.from(searchRequest), limit);
+    }
+    
+    public CursorPage<PropertySummary> searchPropertiesAfter(PropertySearchRequest searchRequest, String cursor) {
+        String afterId = cursor == null || cursor.isEmpty() ? null : PageCursor.decode(cursor).getId();
+        int size = searchRequest.getSize();
+        List<PropertySummary> properties = propertyRepository.searchAfter(
+                PropertyQueryBuilder.from(searchRequest), afterId, size + 1)
+                .stream().map(PropertySummary::of).toList();
+        return CursorPage.of(properties, size, PropertySummary::getId);
     }
     
-    @CacheEvict(value = "properties", allEntries = true)
     public Property createProperty(PropertyRequest request) {
         User currentUser = userService.getCurrentUser();
         
+        Property property = newProperty(request, currentUser.getId());
+        
+        Property saved = propertyRepository.save(property);
+        negativeCache.recordCreated(saved);
+        searchCacheIndex.evict(saved);
+        return saved;
+    }
+    
+    /**
+     * Builds an unsaved AVAILABLE listing owned by {@code ownerId}; shared with the bulk import.
+     */
+    Property newProperty(PropertyRequest request, String ownerId) {
         Property property = new Property();
+        applyRequest(property, request);
+        property.setOwnerId(ownerId);
+        property.setStatus(Property.PropertyStatus.AVAILABLE);
+        Date now = new Date();
+        property.setCreatedAt(now);
+        property.setUpdatedAt(now);
+        return property;
+    }
+    
+    private void applyRequest(Property property, PropertyRequest request) {
         property.setTitle(request.getTitle());
         property.setDescription(request.getDescription());
         property.setAddress(request.getAddress());
@@ -118,15 +232,9 @@ public class PropertyService {
         property.setArea(request.getArea());
         property.setAmenities(request.getAmenities());
         property.setImages(request.getImages());
-        property.setOwnerId(currentUser.getId());
-        property.setStatus(Property.PropertyStatus.AVAILABLE);
-        property.setCreatedAt(new Date());
-        property.setUpdatedAt(new Date());
-        
-        return propertyRepository.save(property);
     }
     
-    @CacheEvict(value = "properties", allEntries = true)
+    @CacheEvict(value = "property", key = "#id")
     public Property updateProperty(String id, PropertyRequest request) {
         Property property = getPropertyById(id);
         User currentUser = userService.getCurrentUser();
@@ -135,27 +243,18 @@ public class PropertyService {
             throw new RuntimeException("Unauthorized to update this property");
         }
         
-        property.setTitle(request.getTitle());
-        property.setDescription(request.getDescription());
-        property.setAddress(request.getAddress());
-        property.setCity(request.getCity());
-        property.setState(request.getState());
-        property.setZipCode(request.getZipCode());
-        property.setCountry(request.getCountry());
-        property.setLocation(new GeoJsonPoint(request.getLongitude(), request.getLatitude()));
-        property.setType(request.getType());
-        property.setPrice(request.getPrice());
-        property.setBedrooms(request.getBedrooms());
-        property.setBathrooms(request.getBathrooms());
-        property.setArea(request.getArea());
-        property.setAmenities(request.getAmenities());
-        property.setImages(request.getImages());
+        Set<String> staleTags = searchCacheIndex.tagsOf(property);
+
+        applyRequest(property, request);
         property.setUpdatedAt(new Date());
         
-        return propertyRepository.save(property);
+        Property saved = propertyRepository.save(property);
+        staleTags.addAll(searchCacheIndex.tagsOf(saved));
+        searchCacheIndex.evictTags(staleTags);
+        return saved;
     }
     
-    @CacheEvict(value = "properties", allEntries = true)
+    @CacheEvict(value = "property", key = "#id")
     public void deleteProperty(String id) {
         Property property = getPropertyById(id);
         User currentUser = userService.getCurrentUser();
@@ -165,18 +264,33 @@ public class PropertyService {
         }
         
         propertyRepository.deleteById(id);
+        searchCacheIndex.evict(property);
     }
     
     public Page<Property> getPropertiesByOwner(String ownerId, Pageable pageable) {
         return propertyRepository.findByOwnerId(ownerId, pageable);
     }
     
-    @CacheEvict(value = "properties", allEntries = true)
+    @CacheEvict(value = "property", key = "#id")
     public Property updatePropertyStatus(String id, Property.PropertyStatus status) {
         Property property = getPropertyById(id);
         property.setStatus(status);
         property.setUpdatedAt(new Date());
-        return propertyRepository.save(property);
+        Property saved = propertyRepository.save(property);
+        searchCacheIndex.evict(saved);
+        return saved;
+    }
+    
+    /**
+     * Conditional status change used by concurrent workflows; returns {@code null} when the
+     * property was not in the {@code from} status, leaving the document untouched.
+     */
+    @CacheEvict(value = "property", key = "#id")
+    public Property transitionStatus(String id, Property.PropertyStatus from, Property.PropertyStatus to) {
+        Property updated = propertyRepository.compareAndSetStatus(id, from, to);
+        if (updated != null) {
+            searchCacheIndex.evict(updated);
+        }
+        return updated;
     }
 }
-
@@ -1,35 +1,53 @@
 package com.rental.service;
 
+import com.rental.dto.CursorPage;
+import com.rental.dto.PageCursor;
 import com.rental.model.Property;
 import com.rental.model.Transaction;
 import com.rental.model.User;
+import com.rental.repository.PropertyRepository;
 import com.rental.repository.TransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
+import java.util.List;
 
 @Service
 public class TransactionService {
     
+    // Each failed attempt means another write to the same property succeeded, so contention settles quickly
+    private static final int MAX_APPROVAL_ATTEMPTS = 20;
+    
     @Autowired
     private TransactionRepository transactionRepository;
     
     @Autowired
     private PropertyService propertyService;
     
+    @Autowired
+    private PropertyRepository propertyRepository;
+    
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private AvailabilityService availabilityService;
+    
     public Transaction createTransaction(String propertyId, Date startDate, Date endDate) {
         Property property = propertyService.getPropertyById(propertyId);
         User currentUser = userService.getCurrentUser();
         
-        if (property.getStatus() != Property.PropertyStatus.AVAILABLE) {
+        availabilityService.validatePeriod(startDate, endDate);
+        if (property.getStatus() == Property.PropertyStatus.MAINTENANCE) {
             throw new RuntimeException("Property is not available");
         }
+        if (!availabilityService.isAvailable(propertyId, startDate, endDate)) {
+            throw new RuntimeException("Property is not available for the selected dates");
+        }
         
         Transaction transaction = new Transaction();
         transaction.setPropertyId(propertyId);
@@ -54,13 +72,53 @@ public class TransactionService {
             throw new RuntimeException("Unauthorized to approve this transaction");
         }
         
-        transaction.setStatus(Transaction.TransactionStatus.APPROVED);
-        transaction.setUpdatedAt(new Date());
+        if (transaction.getStatus() != Transaction.TransactionStatus.PENDING) {
+            throw new RuntimeException("Transaction is not pending");
+        }
         
-        // Update property status
-        propertyService.updatePropertyStatus(transaction.getPropertyId(), Property.PropertyStatus.RENTED);
+        // Approvals of one property are serialized through its version: each attempt reads the version,
+        // checks for overlapping approved bookings, marks itself APPROVED and then bumps the version.
+        // The bump fails whenever any write to the property landed in between, competing approval or
+        // not, so the attempt withdraws its mark before checking again. A booking is only rejected
+        // while an overlapping one is marked, and only the approval whose bump succeeded keeps its
+        // mark, so exactly one of any overlapping set ends up approved.
+        String propertyId = transaction.getPropertyId();
+        Transaction approved;
+        for (int attempt = 1; ; attempt++) {
+            Long version = propertyRepository.findVersion(propertyId);
+            if (version == null) {
+                throw new RuntimeException("Property not found");
+            }
+            if (!availabilityService.isAvailableExcluding(propertyId, transaction.getStartDate(), transaction.getEndDate(), id)) {
+                throw new RuntimeException("Property is not available for the selected dates");
+            }
+            approved = transactionRepository.compareAndSetStatus(
+                    id, Transaction.TransactionStatus.PENDING, Transaction.TransactionStatus.APPROVED);
+            if (approved == null) {
+                throw new RuntimeException("Transaction is not pending");
+            }
+            if (propertyRepository.compareAndIncrementVersion(propertyId, version)) {
+                break;
+            }
+            revertApproval(id);
+            if (attempt == MAX_APPROVAL_ATTEMPTS) {
+                throw new RuntimeException("Property is being updated, please try again");
+            }
+        }
+        availabilityService.evict(propertyId);
         
-        return transactionRepository.save(transaction);
+        // The property status reflects current occupancy; future bookings leave it AVAILABLE
+        Date now = new Date();
+        if (!approved.getStartDate().after(now) && approved.getEndDate().after(now)) {
+            propertyService.transitionStatus(propertyId, Property.PropertyStatus.AVAILABLE, Property.PropertyStatus.RENTED);
+        }
+        
+        return approved;
+    }
+    
+    private void revertApproval(String id) {
+        transactionRepository.compareAndSetStatus(
+                id, Transaction.TransactionStatus.APPROVED, Transaction.TransactionStatus.PENDING);
     }
     
     public Page<Transaction> getUserTransactions(Pageable pageable) {
@@ -72,5 +130,29 @@ public class TransactionService {
         User currentUser = userService.getCurrentUser();
         return transactionRepository.findByOwnerId(currentUser.getId(), pageable);
     }
+    
+    public CursorPage<Transaction> getUserTransactionsAfter(String cursor, int size) {
+        User currentUser = userService.getCurrentUser();
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Transaction> transactions = isFirstPage(cursor)
+                ? transactionRepository.findByTenantIdOrderByIdDesc(currentUser.getId(), limit)
+                : transactionRepository.findByTenantIdAndIdLessThanOrderByIdDesc(
+                        currentUser.getId(), PageCursor.decode(cursor).getId(), limit);
+        return CursorPage.of(transactions, size, Transaction::getId);
+    }
+    
+    public CursorPage<Transaction> getOwnerTransactionsAfter(String cursor, int size) {
+        User currentUser = userService.getCurrentUser();
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Transaction> transactions = isFirstPage(cursor)
+                ? transactionRepository.findByOwnerIdOrderByIdDesc(currentUser.getId(), limit)
+                : transactionRepository.findByOwnerIdAndIdLessThanOrderByIdDesc(
+                        currentUser.getId(), PageCursor.decode(cursor).getId(), limit);
+        return CursorPage.of(transactions, size, Transaction::getId);
+    }
+    
+    private boolean isFirstPage(String cursor) {
+        return cursor == null || cursor.isEmpty();
+    }
 }
 
@@ -64,14 +64,24 @@ public class UserService {
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String token = tokenProvider.generateToken(authentication);
         
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = authentication.getPrincipal() instanceof User principal
+                ? principal
+                : userRepository.findByEmail(request.getEmail())
+                        .orElseThrow(() -> new RuntimeException("User not found"));
         
         return new AuthResponse(token, "Bearer", user.getEmail(), user.getRole());
     }
     
+    /**
+     * Returns the caller resolved by the JWT filter for this request; only falls back to MongoDB
+     * when the security context holds something other than a {@link User}.
+     */
     public User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        
         String email = authentication.getName();
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
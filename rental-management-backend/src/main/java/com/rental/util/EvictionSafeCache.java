@@ -0,0 +1,50 @@
+package com.rental.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caffeine cache whose loads run outside Caffeine's compute lock, so a blocking loader cannot pin
+ * a virtual thread, without letting a load that raced an {@link #invalidate} put its stale value
+ * back. Every invalidation bumps one counter; a load only keeps its value if the counter did not
+ * move while it ran, and withdraws it again if an invalidation slipped in while it was being put.
+ * The counter is shared by all keys, so an invalidation may cost concurrent loads of other keys
+ * their caching, never their correctness.
+ */
+public final class EvictionSafeCache<K, V> {
+
+    private final Cache<K, V> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public EvictionSafeCache(Cache<K, V> cache) {
+        this.cache = cache;
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long seen = invalidations.get();
+        V loaded = loader.apply(key);
+        if (loaded == null || invalidations.get() != seen) {
+            return loaded;
+        }
+        V existing = cache.asMap().putIfAbsent(key, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        if (invalidations.get() != seen) {
+            cache.asMap().remove(key, loaded);
+        }
+        return loaded;
+    }
+
+    public void invalidate(K key) {
+        invalidations.incrementAndGet();
+        cache.invalidate(key);
+    }
+}
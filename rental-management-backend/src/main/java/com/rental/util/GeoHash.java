@@ -0,0 +1,163 @@
+package com.rental.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Minimal geohash encoder used to bucket coordinates into hierarchical grid cells.
+ */
+public final class GeoHash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final double METERS_PER_DEGREE = 111_320d;
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8d;
+
+    private GeoHash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (longitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLng = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32[ch]);
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Returns {minLat, maxLat, minLng, maxLng} of the cell identified by the given hash.
+     */
+    public static double[] bounds(String hash) {
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        boolean evenBit = true;
+
+        for (int i = 0; i < hash.length(); i++) {
+            int value = indexOf(hash.charAt(i));
+            for (int mask = 16; mask > 0; mask >>= 1) {
+                boolean set = (value & mask) != 0;
+                if (evenBit) {
+                    double mid = (minLng + maxLng) / 2;
+                    if (set) {
+                        minLng = mid;
+                    } else {
+                        maxLng = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[] {minLat, maxLat, minLng, maxLng};
+    }
+
+    public static double cellHeight(int precision) {
+        int latBits = (5 * precision) / 2;
+        return 180d / (1L << latBits);
+    }
+
+    public static double cellWidth(int precision) {
+        int lngBits = (5 * precision + 1) / 2;
+        return 360d / (1L << lngBits);
+    }
+
+    /**
+     * Returns the cells at the given precision that intersect the bounding box of a circle,
+     * or {@code null} when more than {@code maxCells} cells would be needed.
+     */
+    public static Set<String> coveringCells(double latitude, double longitude, double radiusMeters,
+                                            int precision, int maxCells) {
+        double latDelta = radiusMeters / METERS_PER_DEGREE;
+        double cos = Math.cos(Math.toRadians(latitude));
+        double lngDelta = cos > 0 ? radiusMeters / (METERS_PER_DEGREE * cos) : 360;
+
+        double minLat = Math.max(-90, latitude - latDelta);
+        double maxLat = Math.min(90, latitude + latDelta);
+        double minLng = longitude - lngDelta;
+        double maxLng = longitude + lngDelta;
+
+        double height = cellHeight(precision);
+        double width = cellWidth(precision);
+        long rows = (long) Math.ceil((maxLat - minLat) / height) + 1;
+        long columns = (long) Math.ceil((maxLng - minLng) / width) + 1;
+        if (rows * columns > maxCells) {
+            return null;
+        }
+
+        Set<String> cells = new LinkedHashSet<>();
+        for (double lat = minLat; ; lat += height) {
+            double cellLat = Math.min(lat, maxLat);
+            for (double lng = minLng; ; lng += width) {
+                double cellLng = Math.min(lng, maxLng);
+                cells.add(encode(cellLat, normalizeLongitude(cellLng), precision));
+                if (lng >= maxLng) {
+                    break;
+                }
+            }
+            if (lat >= maxLat) {
+                break;
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Great-circle (haversine) distance between two coordinates in meters.
+     */
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        return ((longitude + 180) % 360 + 360) % 360 - 180;
+    }
+
+    private static int indexOf(char c) {
+        for (int i = 0; i < BASE32.length; i++) {
+            if (BASE32[i] == c) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Invalid geohash character: " + c);
+    }
+}
@@ -0,0 +1,112 @@
+package com.rental.util;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Static two-dimensional k-d tree over primitive coordinate arrays. The tree is implicit: points
+ * are ordered so that every subrange's middle element splits it, alternating latitude and
+ * longitude by depth, so no node objects are allocated.
+ */
+public final class KdTree {
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] order;
+
+    /**
+     * Builds the tree over the given arrays, which must not be modified afterwards. Callbacks
+     * receive indexes into these arrays.
+     */
+    public KdTree(double[] latitudes, double[] longitudes) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.order = new int[latitudes.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        build(0, order.length, 0);
+    }
+
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * Calls {@code consumer} with the index of every point inside the box, bounds inclusive.
+     */
+    public void rangeQuery(double minLat, double maxLat, double minLng, double maxLng, IntConsumer consumer) {
+        query(0, order.length, 0, minLat, maxLat, minLng, maxLng, consumer);
+    }
+
+    private void query(int from, int to, int depth, double minLat, double maxLat, double minLng, double maxLng,
+                       IntConsumer consumer) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            int point = order[mid];
+            double lat = latitudes[point];
+            double lng = longitudes[point];
+            if (lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng) {
+                consumer.accept(point);
+            }
+
+            double value = depth % 2 == 0 ? lat : lng;
+            double min = depth % 2 == 0 ? minLat : minLng;
+            double max = depth % 2 == 0 ? maxLat : maxLng;
+            boolean left = min <= value;
+            boolean right = max >= value;
+            depth++;
+            if (left && right) {
+                query(from, mid, depth, minLat, maxLat, minLng, maxLng, consumer);
+                from = mid + 1;
+            } else if (left) {
+                to = mid;
+            } else if (right) {
+                from = mid + 1;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void build(int from, int to, int depth) {
+        while (to - from > 1) {
+            int mid = (from + to) >>> 1;
+            double[] axis = depth % 2 == 0 ? latitudes : longitudes;
+            select(axis, from, to - 1, mid);
+            depth++;
+            build(from, mid, depth);
+            from = mid + 1;
+        }
+    }
+
+    // Quickselect: after this, order[k] holds the k-th smallest value on the axis within [left, right]
+    private void select(double[] axis, int left, int right, int k) {
+        while (right > left) {
+            double pivot = axis[order[(left + right) >>> 1]];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (axis[order[i]] < pivot) {
+                    i++;
+                }
+                while (axis[order[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+}
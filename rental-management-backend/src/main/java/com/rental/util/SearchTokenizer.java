@@ -0,0 +1,88 @@
+package com.rental.util;
+
+import com.rental.model.Property;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns listing text into the lowercase, accent-free tokens stored in {@code searchTokens}.
+ * Titles, cities and amenities are indexed by every prefix of each word so that partially typed
+ * words match; descriptions are indexed by whole words only to keep the token list small.
+ */
+public final class SearchTokenizer {
+
+    public static final int MIN_PREFIX = 2;
+    public static final int MAX_PREFIX = 15;
+    static final int MAX_TOKENS = 1000;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTokenizer() {
+    }
+
+    public static List<String> indexTokens(Property property) {
+        Set<String> tokens = new LinkedHashSet<>();
+        addPrefixes(property.getTitle(), tokens);
+        addPrefixes(property.getCity(), tokens);
+        if (property.getAmenities() != null) {
+            for (String amenity : property.getAmenities()) {
+                addPrefixes(amenity, tokens);
+            }
+        }
+        for (String word : words(property.getDescription())) {
+            if (tokens.size() >= MAX_TOKENS) {
+                break;
+            }
+            tokens.add(truncate(word));
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * Tokens a listing must all contain to match {@code text}; single characters are dropped since
+     * they are not indexed. Returns an empty list when nothing searchable is left.
+     */
+    public static List<String> queryTokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String word : words(text)) {
+            if (word.length() >= MIN_PREFIX) {
+                tokens.add(truncate(word));
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    static List<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static void addPrefixes(String text, Set<String> tokens) {
+        for (String word : words(text)) {
+            int max = Math.min(word.length(), MAX_PREFIX);
+            for (int length = MIN_PREFIX; length <= max && tokens.size() < MAX_TOKENS; length++) {
+                tokens.add(word.substring(0, length));
+            }
+        }
+    }
+
+    private static String truncate(String word) {
+        return word.length() > MAX_PREFIX ? word.substring(0, MAX_PREFIX) : word;
+    }
+}
@@ -0,0 +1,79 @@
+package com.rental.cache;
+
+import com.rental.config.RedisConfig;
+import com.rental.dto.PropertySearchRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PropertySearchCacheIndexTest {
+
+    private static final String CACHE_KEY = "city=Austin&page=0";
+    private static final String TAG_KEY = "cache-tags:" + RedisConfig.PROPERTY_SEARCH_CACHE + ":city:austin";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @InjectMocks
+    private PropertySearchCacheIndex index;
+
+    private PropertySearchRequest request;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(index, "tagTtl", Duration.ofMinutes(10));
+        request = new PropertySearchRequest();
+        request.setCity("Austin");
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+    }
+
+    @Test
+    void keepsAnEntryNoWriteRacedWith() {
+        when(valueOperations.get("cache-tags:generation")).thenReturn("7");
+
+        index.register(RedisConfig.PROPERTY_SEARCH_CACHE, CACHE_KEY, request, 7);
+
+        verify(setOperations).add(TAG_KEY, CACHE_KEY);
+        verify(cacheManager, never()).getCache(RedisConfig.PROPERTY_SEARCH_CACHE);
+    }
+
+    @Test
+    void evictsAnEntryLoadedBeforeAWriteThatCouldNotSeeIt() {
+        // A write evicted the tag while the page was loading, before the page was registered
+        when(valueOperations.get("cache-tags:generation")).thenReturn("8");
+        when(cacheManager.getCache(RedisConfig.PROPERTY_SEARCH_CACHE)).thenReturn(cache);
+
+        index.register(RedisConfig.PROPERTY_SEARCH_CACHE, CACHE_KEY, request, 7);
+
+        verify(cache).evict(CACHE_KEY);
+    }
+}
@@ -0,0 +1,123 @@
+package com.rental.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+
+    private static final String CACHE = "properties";
+    private static final String KEY = "42";
+    private static final String LEASE_KEY = "cache-lease:" + CACHE + ":" + KEY;
+    private static final Duration LEASE_TTL = Duration.ofSeconds(10);
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrentMapCacheManager remoteCacheManager;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        remoteCacheManager = new ConcurrentMapCacheManager(CACHE);
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(remoteCacheManager, redisTemplate,
+                "cache-invalidation", 100, Duration.ofMinutes(1))
+                .withLoadLease(LEASE_TTL, Duration.ofMillis(10))
+                .withMeterRegistry(meterRegistry);
+        cache = cacheManager.getCache(CACHE);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void waiterLoadsItselfOnceTheHolderReleasesTheLeaseWithoutAValue() {
+        // Another node holds the lease, then its load fails and it releases the lease without writing a value
+        when(valueOperations.setIfAbsent(eq(LEASE_KEY), anyString(), eq(LEASE_TTL))).thenReturn(false);
+        when(redisTemplate.hasKey(LEASE_KEY)).thenReturn(true, true, false);
+
+        long start = System.nanoTime();
+        String value = cache.get(KEY, () -> "loaded");
+        Duration waited = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(value).isEqualTo("loaded");
+        assertThat(waited).isLessThan(LEASE_TTL.dividedBy(2));
+        assertThat(remoteCacheManager.getCache(CACHE).get(KEY, String.class)).isEqualTo("loaded");
+        assertThat(loads("loaded")).isEqualTo(1);
+        assertThat(loads("lease_wait")).isZero();
+    }
+
+    @Test
+    void waiterTakesTheHoldersValueWhenItLandsBeforeTheRelease() {
+        when(valueOperations.setIfAbsent(eq(LEASE_KEY), anyString(), eq(LEASE_TTL))).thenReturn(false);
+        when(redisTemplate.hasKey(LEASE_KEY)).thenAnswer(invocation -> {
+            remoteCacheManager.getCache(CACHE).put(KEY, "from holder");
+            return false;
+        });
+        AtomicInteger calls = new AtomicInteger();
+
+        String value = cache.get(KEY, () -> "local " + calls.incrementAndGet());
+
+        assertThat(value).isEqualTo("from holder");
+        assertThat(calls).hasValue(0);
+        assertThat(loads("lease_wait")).isEqualTo(1);
+    }
+
+    @Test
+    void holderReleasesTheLeaseWhenItsLoadFails() {
+        when(valueOperations.setIfAbsent(eq(LEASE_KEY), anyString(), eq(LEASE_TTL))).thenReturn(true);
+
+        assertThatThrownBy(() -> cache.get(KEY, () -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+
+        verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(List.of(LEASE_KEY)), anyString());
+        assertThat(remoteCacheManager.getCache(CACHE).get(KEY)).isNull();
+
+        // Nothing of the failed load is left behind, the next read loads again
+        assertThat(cache.get(KEY, () -> "retried")).isEqualTo("retried");
+    }
+
+    @Test
+    void onlyOverwritesAreBroadcastToOtherNodes() {
+        when(valueOperations.setIfAbsent(eq(LEASE_KEY), anyString(), eq(LEASE_TTL))).thenReturn(true);
+
+        // Filling missing entries cannot invalidate anything another node holds
+        cache.get(KEY, () -> "loaded");
+        cache.putIfAbsent("43", "filled");
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+
+        cache.put(KEY, "changed");
+        verify(redisTemplate).convertAndSend(eq("cache-invalidation"), anyString());
+    }
+
+    private double loads(String outcome) {
+        return meterRegistry.get("cache.loads").tag("cache", CACHE).tag("outcome", outcome).counter().count();
+    }
+}
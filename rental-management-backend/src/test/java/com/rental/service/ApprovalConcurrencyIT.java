@@ -0,0 +1,216 @@
+package com.rental.service;
+
+import com.rental.model.Property;
+import com.rental.model.Transaction;
+import com.rental.model.User;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Races thousands of approvals of overlapping bookings against a real MongoDB and checks that
+ * every set of mutually overlapping bookings ends up with exactly one approved booking and that
+ * every property is left in the status its approved bookings call for.
+ */
+@SpringBootTest
+class ApprovalConcurrencyIT {
+
+    private static final int RENTED_PROPERTIES = 30;
+    private static final int FUTURE_ONLY_PROPERTIES = 10;
+    private static final int BOOKINGS_PER_SET = 40;
+    private static final int THREADS = 64;
+
+    private static final TransitionWalker.ReachedState<RunningMongodProcess> mongod = Mongod.instance().start(Version.Main.V7_0);
+    private static final int redisPort = freePort();
+    private static final RedisServer redis = startRedis();
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @DynamicPropertySource
+    static void embeddedServers(DynamicPropertyRegistry registry) {
+        ServerAddress address = mongod.current().getServerAddress();
+        registry.add("spring.data.mongodb.uri",
+                () -> "mongodb://" + address.getHost() + ":" + address.getPort() + "/rental_approval_it");
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", () -> redisPort);
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        redis.stop();
+        mongod.close();
+    }
+
+    @Test
+    void exactlyOneOfEachOverlappingSetIsApproved() throws Exception {
+        User owner = new User();
+        owner.setEmail("owner@approval.test");
+        owner.setPassword("unused");
+        owner.setRole("USER");
+        owner = mongoTemplate.insert(owner);
+
+        // Per property: bookings that all cover the coming day, and bookings that all cover a day a month out
+        // Both sets bump the same property version, so approvals also retry on writes that do not compete with them
+        Instant now = Instant.now();
+        Random random = new Random(42);
+        List<Property> properties = new ArrayList<>();
+        List<Transaction> bookings = new ArrayList<>();
+        List<String> sets = new ArrayList<>();
+        for (int i = 0; i < RENTED_PROPERTIES + FUTURE_ONLY_PROPERTIES; i++) {
+            Property property = mongoTemplate.insert(property(owner, i));
+            properties.add(property);
+            if (i < RENTED_PROPERTIES) {
+                addSet(bookings, sets, property, owner, "current", now.minus(Duration.ofDays(2)), now.plus(Duration.ofDays(1)), random);
+            }
+            addSet(bookings, sets, property, owner, "future", now.plus(Duration.ofDays(30)), now.plus(Duration.ofDays(31)), random);
+        }
+        mongoTemplate.insertAll(bookings);
+        Map<String, String> setOfBooking = new HashMap<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            setOfBooking.put(bookings.get(i).getId(), sets.get(i));
+        }
+        List<Transaction> pending = new ArrayList<>(bookings);
+        Collections.shuffle(pending, random);
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(owner, null, owner.getAuthorities());
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger approvals = new AtomicInteger();
+        Map<String, AtomicInteger> rejections = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Transaction booking : pending) {
+                futures.add(executor.submit(() -> {
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    try {
+                        start.await();
+                        transactionService.approveTransaction(booking.getId());
+                        approvals.incrementAndGet();
+                    } catch (RuntimeException ex) {
+                        rejections.computeIfAbsent(ex.getMessage(), message -> new AtomicInteger()).incrementAndGet();
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int setCount = 2 * RENTED_PROPERTIES + FUTURE_ONLY_PROPERTIES;
+        assertThat(approvals).hasValue(setCount);
+        assertThat(rejections.keySet()).containsOnly("Property is not available for the selected dates");
+
+        Map<String, List<Transaction>> approvedBySet = mongoTemplate.findAll(Transaction.class).stream()
+                .filter(transaction -> transaction.getStatus() == Transaction.TransactionStatus.APPROVED)
+                .collect(Collectors.groupingBy(transaction -> setOfBooking.get(transaction.getId())));
+        assertThat(approvedBySet).hasSize(setCount);
+        approvedBySet.forEach((set, approved) -> assertThat(approved).as(set).hasSize(1));
+
+        for (Property property : properties) {
+            Property stored = mongoTemplate.findById(property.getId(), Property.class);
+            Property.PropertyStatus expected = approvedBySet.containsKey(property.getId() + "/current")
+                    ? Property.PropertyStatus.RENTED
+                    : Property.PropertyStatus.AVAILABLE;
+            assertThat(stored.getStatus()).as(property.getTitle()).isEqualTo(expected);
+        }
+    }
+
+    // Every booking of a set contains [from, to], so any two of them overlap
+    private static void addSet(List<Transaction> bookings, List<String> sets, Property property,
+                               User owner, String set, Instant from, Instant to, Random random) {
+        for (int i = 0; i < BOOKINGS_PER_SET; i++) {
+            Transaction booking = new Transaction();
+            booking.setPropertyId(property.getId());
+            booking.setTenantId("tenant-" + i);
+            booking.setOwnerId(owner.getId());
+            booking.setAmount(property.getPrice());
+            booking.setStartDate(Date.from(from.minus(Duration.ofHours(random.nextInt(48)))));
+            booking.setEndDate(Date.from(to.plus(Duration.ofHours(random.nextInt(48)))));
+            booking.setStatus(Transaction.TransactionStatus.PENDING);
+            booking.setCreatedAt(new Date());
+            booking.setUpdatedAt(new Date());
+            bookings.add(booking);
+            sets.add(property.getId() + "/" + set);
+        }
+    }
+
+    private static Property property(User owner, int index) {
+        Property property = new Property();
+        property.setTitle("Contended listing " + index);
+        property.setCity("Springfield");
+        property.setType(Property.PropertyType.APARTMENT);
+        property.setPrice(BigDecimal.valueOf(1000 + index));
+        property.setLocation(new GeoJsonPoint(new Point(-122.4 + index * 0.001, 37.7)));
+        property.setOwnerId(owner.getId());
+        property.setStatus(Property.PropertyStatus.AVAILABLE);
+        property.setCreatedAt(new Date());
+        property.setUpdatedAt(new Date());
+        return property;
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException ex) {
+            throw new IllegalStateException("No free port for embedded Redis", ex);
+        }
+    }
+
+    private static RedisServer startRedis() {
+        try {
+            RedisServer server = new RedisServer(redisPort);
+            server.start();
+            return server;
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not start embedded Redis", ex);
+        }
+    }
+}
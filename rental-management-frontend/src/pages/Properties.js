@@ -8,10 +8,12 @@ const Properties = () => {
   const navigate = useNavigate();
   const [searchParams] = useSearchParams();
   const [filters, setFilters] = useState({
+    q: searchParams.get('q') || '',
     city: searchParams.get('city') || '',
     type: searchParams.get('type') || '',
     minPrice: searchParams.get('minPrice') || '',
     maxPrice: searchParams.get('maxPrice') || '',
+    sort: searchParams.get('sort') || '',
     page: 0
   });
 
@@ -19,18 +21,25 @@ const Properties = () => {
     queryKey: ['properties', filters],
     queryFn: async () => {
       const params = new URLSearchParams();
+      if (filters.q) params.append('q', filters.q);
       if (filters.city) params.append('city', filters.city);
       if (filters.type) params.append('type', filters.type);
       if (filters.minPrice) params.append('minPrice', filters.minPrice);
       if (filters.maxPrice) params.append('maxPrice', filters.maxPrice);
+      if (filters.sort) params.append('sort', filters.sort);
       params.append('page', filters.page);
       params.append('size', '20');
       
-      const response = await api.get(`/properties?${params.toString()}`);
+      const response = await api.get(`/properties/facets?${params.toString()}`);
       return response.data;
     }
   });
 
+  const typeLabel = (value, label) => {
+    const count = data?.facets?.types?.[value];
+    return count !== undefined ? `${label} (${count})` : label;
+  };
+
   if (isLoading) return <div className="loading">Loading properties...</div>;
   if (error) return <div className="error">Error loading properties: {error.message}</div>;
 
@@ -39,6 +48,12 @@ const Properties = () => {
       <div className="properties-header">
         <h1>Properties</h1>
         <div className="filters">
+          <input
+            type="text"
+            placeholder="Search keywords..."
+            value={filters.q}
+            onChange={(e) => setFilters({...filters, q: e.target.value, page: 0})}
+          />
           <input
             type="text"
             placeholder="Search by city..."
@@ -50,10 +65,21 @@ const Properties = () => {
             onChange={(e) => setFilters({...filters, type: e.target.value, page: 0})}
           >
             <option value="">All Types</option>
-            <option value="APARTMENT">Apartment</option>
-            <option value="HOUSE">House</option>
-            <option value="CONDO">Condo</option>
-            <option value="TOWNHOUSE">Townhouse</option>
+            <option value="APARTMENT">{typeLabel('APARTMENT', 'Apartment')}</option>
+            <option value="HOUSE">{typeLabel('HOUSE', 'House')}</option>
+            <option value="CONDO">{typeLabel('CONDO', 'Condo')}</option>
+            <option value="TOWNHOUSE">{typeLabel('TOWNHOUSE', 'Townhouse')}</option>
+          </select>
+          <select
+            value={filters.sort}
+            onChange={(e) => setFilters({...filters, sort: e.target.value, page: 0})}
+          >
+            <option value="">Sort</option>
+            <option value="relevance">Best match</option>
+            <option value="newest">Newest</option>
+            <option value="price_asc">Price: low to high</option>
+            <option value="price_desc">Price: high to low</option>
+            <option value="area_desc">Largest</option>
           </select>
         </div>
       </div>
@@ -62,8 +88,8 @@ const Properties = () => {
         {data?.properties?.map(property => (
           <Link key={property.id} to={`/properties/${property.id}`} className="property-card">
             <div className="property-image">
-              {property.images && property.images.length > 0 ? (
-                <img src={property.images[0]} alt={property.title} />
+              {property.thumbnail ? (
+                <img src={property.thumbnail} alt={property.title} />
               ) : (
                 <span>🏠</span>
               )}